@@ -0,0 +1,36 @@
+#!/usr/bin/env bash
+# Saturates /api/login while measuring /api/user latency on the same node.
+# Requires `hey` (https://github.com/rakyll/hey) and a running application.
+#
+#   BASE_URL=http://localhost:8080 USERNAME=user PASSWORD=secret ./load-tests/login-storm.sh
+set -euo pipefail
+
+BASE_URL=${BASE_URL:-http://localhost:8080}
+USERNAME=${USERNAME:-user}
+PASSWORD=${PASSWORD:-password}
+DURATION=${DURATION:-60s}
+LOGIN_CONCURRENCY=${LOGIN_CONCURRENCY:-200}
+USER_CONCURRENCY=${USER_CONCURRENCY:-50}
+
+ACCESS_TOKEN=$(curl -sf -H 'Content-Type: application/json' \
+  -d "{\"username\":\"${USERNAME}\",\"password\":\"${PASSWORD}\"}" \
+  "${BASE_URL}/api/login" | sed -E 's/.*"accessToken":"([^"]+)".*/\1/')
+
+echo "== /api/user baseline"
+hey -z 15s -c "${USER_CONCURRENCY}" -H "Authorization: Bearer ${ACCESS_TOKEN}" "${BASE_URL}/api/user" \
+  | grep -E 'Requests/sec|99%|Status code|\[[0-9]+\]'
+
+echo "== /api/login storm (${LOGIN_CONCURRENCY} concurrent, wrong password)"
+hey -z "${DURATION}" -c "${LOGIN_CONCURRENCY}" -m POST -T 'application/json' \
+  -d "{\"username\":\"${USERNAME}\",\"password\":\"wrong-${PASSWORD}\"}" "${BASE_URL}/api/login" \
+  | grep -E 'Requests/sec|99%|\[[0-9]+\]' > /tmp/login-storm.txt &
+STORM_PID=$!
+sleep 5
+
+echo "== /api/user during storm"
+hey -z 15s -c "${USER_CONCURRENCY}" -H "Authorization: Bearer ${ACCESS_TOKEN}" "${BASE_URL}/api/user" \
+  | grep -E 'Requests/sec|99%|Status code|\[[0-9]+\]'
+
+wait "${STORM_PID}"
+echo "== /api/login storm result (429 = shed by the password hashing pool)"
+cat /tmp/login-storm.txt
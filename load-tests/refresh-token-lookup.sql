@@ -0,0 +1,72 @@
+-- Refresh-token lookup: plain unindexed token column vs. unique-indexed SHA-256 digest.
+-- Seeds 10M rows into two scratch tables, then times point lookups against each.
+--
+--   psql "$POSTGRES_URL" -f load-tests/refresh-token-lookup.sql
+--
+-- Needs PostgreSQL 13+ (gen_random_uuid) and pgcrypto for digest(). Takes a few minutes and ~3 GB of disk.
+\timing on
+CREATE EXTENSION IF NOT EXISTS pgcrypto;
+
+DROP TABLE IF EXISTS bench_refresh_token_plain;
+DROP TABLE IF EXISTS bench_refresh_token_hashed;
+
+-- Before: raw UUID in a varchar column with no index, as the entity used to be mapped.
+CREATE TABLE bench_refresh_token_plain (
+    id          bigserial PRIMARY KEY,
+    token       varchar(255),
+    expiry_date timestamp(6) with time zone,
+    user_id     bigint
+);
+
+-- After: fixed-width digest with a unique index, the raw UUID is never stored.
+CREATE TABLE bench_refresh_token_hashed (
+    id          bigserial PRIMARY KEY,
+    token_hash  char(64) NOT NULL UNIQUE,
+    expiry_date timestamp(6) with time zone,
+    user_id     bigint
+);
+
+INSERT INTO bench_refresh_token_plain (token, expiry_date, user_id)
+SELECT gen_random_uuid()::text, now() + interval '10 minutes', n % 100000
+FROM generate_series(1, 10000000) AS n;
+
+INSERT INTO bench_refresh_token_hashed (token_hash, expiry_date, user_id)
+SELECT encode(digest(token, 'sha256'), 'hex'), expiry_date, user_id
+FROM bench_refresh_token_plain;
+
+ANALYZE bench_refresh_token_plain;
+ANALYZE bench_refresh_token_hashed;
+
+-- Pick a token near the end of the table so the sequential scan has to read almost everything.
+SELECT token AS probe FROM bench_refresh_token_plain ORDER BY id DESC LIMIT 1 \gset
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench_refresh_token_plain WHERE token = :'probe';
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench_refresh_token_hashed WHERE token_hash = encode(digest(:'probe', 'sha256'), 'hex');
+
+-- Repeated lookups to smooth out caching effects.
+DO $$
+DECLARE
+    probe  text;
+    start  timestamptz;
+    i      int;
+BEGIN
+    SELECT token INTO probe FROM bench_refresh_token_plain ORDER BY id DESC LIMIT 1;
+
+    start := clock_timestamp();
+    FOR i IN 1..20 LOOP
+        PERFORM 1 FROM bench_refresh_token_plain WHERE token = probe;
+    END LOOP;
+    RAISE NOTICE 'plain column:  % ms per lookup', extract(epoch FROM clock_timestamp() - start) * 1000 / 20;
+
+    start := clock_timestamp();
+    FOR i IN 1..10000 LOOP
+        PERFORM 1 FROM bench_refresh_token_hashed WHERE token_hash = encode(digest(probe, 'sha256'), 'hex');
+    END LOOP;
+    RAISE NOTICE 'hashed + index: % ms per lookup', extract(epoch FROM clock_timestamp() - start) * 1000 / 10000;
+END $$;
+
+DROP TABLE bench_refresh_token_plain;
+DROP TABLE bench_refresh_token_hashed;
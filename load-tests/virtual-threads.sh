@@ -0,0 +1,51 @@
+#!/usr/bin/env bash
+# Compares platform-thread and virtual-thread request handling at high connection counts.
+# Requires `wrk` (https://github.com/wg/wrk), a built jar (mvn package) and the usual
+# POSTGRES_* / SECRET_TOKEN environment variables. Raise the open-file limit first, e.g. `ulimit -n 65535`.
+#
+#   USERNAME=user PASSWORD=secret ./load-tests/virtual-threads.sh
+set -euo pipefail
+
+JAR=${JAR:-$(ls target/SpringSecurityApplication-*.jar | head -n 1)}
+PORT=${PORT:-8080}
+BASE_URL="http://localhost:${PORT}"
+USERNAME=${USERNAME:-user}
+PASSWORD=${PASSWORD:-password}
+CONNECTIONS=${CONNECTIONS:-5000}
+THREADS=${THREADS:-16}
+DURATION=${DURATION:-60s}
+RESULTS=${RESULTS:-target/virtual-threads}
+
+mkdir -p "${RESULTS}"
+
+run() {
+  local mode=$1 virtual=$2
+  echo "== ${mode}"
+  VIRTUAL_THREADS_ENABLED=${virtual} java -Djdk.tracePinnedThreads=short -jar "${JAR}" \
+    --server.port="${PORT}" > "${RESULTS}/${mode}-app.log" 2>&1 &
+  local app_pid=$!
+  trap 'kill ${app_pid} 2>/dev/null || true' EXIT
+  until curl -sf "${BASE_URL}/actuator/health" > /dev/null; do sleep 1; done
+
+  local token
+  token=$(curl -sf -H 'Content-Type: application/json' \
+    -d "{\"username\":\"${USERNAME}\",\"password\":\"${PASSWORD}\"}" \
+    "${BASE_URL}/api/login" | sed -E 's/.*"accessToken":"([^"]+)".*/\1/')
+
+  # Warm up the JIT and the connection pool before measuring.
+  wrk -t"${THREADS}" -c500 -d15s -H "Authorization: Bearer ${token}" "${BASE_URL}/api/user" > /dev/null
+  wrk -t"${THREADS}" -c"${CONNECTIONS}" -d"${DURATION}" --latency \
+    -H "Authorization: Bearer ${token}" "${BASE_URL}/api/user" | tee "${RESULTS}/${mode}-wrk.txt"
+
+  kill "${app_pid}"
+  wait "${app_pid}" 2>/dev/null || true
+  echo "Pinned-thread events: $(grep -c 'VirtualThread.*pinned\|<== monitors' "${RESULTS}/${mode}-app.log" || true)"
+}
+
+run platform false
+run virtual true
+
+echo "== Summary (${CONNECTIONS} connections)"
+for mode in platform virtual; do
+  printf '%-9s %s\n' "${mode}" "$(grep -E 'Requests/sec' "${RESULTS}/${mode}-wrk.txt")"
+done
@@ -1,42 +1,251 @@
 package com.example.SpringSecurityApplication.aspect;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.*;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestHeader;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Times every controller call with the {@code controller.invocation} timer and logs a sample of them as structured
+ * key-value pairs ({@code endpoint}, {@code durationUs}, {@code args}, {@code result}) instead of formatting every
+ * argument and result. Calls slower than {@code requestLogging.slowThreshold} and failures are always logged.
+ * <p>
+ * Arguments are described only for logged calls: simple values as they are, the fields of the application's own
+ * classes one level deep, anything else by type. Values are replaced by {@value #REDACTED} when they come from a
+ * credential header ({@code Authorization}, {@code Proxy-Authorization}, {@code Cookie}) or a parameter or field
+ * marked {@link Redacted}, whatever they are called; as a fallback, so are fields whose name contains one of
+ * {@code requestLogging.redactedFields}. Results are described by type and HTTP status only, since they carry tokens.
+ */
 @Aspect
 @Component
 @Slf4j
 public class LoggingAspect {
 
-    @Pointcut("within(com.example.SpringSecurityApplication.controllers..*)")
+    static final String REDACTED = "***";
+
+    private static final String APPLICATION_PACKAGE = "com.example.SpringSecurityApplication";
+    private static final int MAX_VALUE_LENGTH = 64;
+    private static final Set<String> CREDENTIAL_HEADERS = Set.of(HttpHeaders.AUTHORIZATION.toLowerCase(Locale.ROOT),
+            HttpHeaders.PROXY_AUTHORIZATION.toLowerCase(Locale.ROOT), HttpHeaders.COOKIE.toLowerCase(Locale.ROOT));
+
+    private final Supplier<MeterRegistry> meterRegistry;
+    private final boolean enabled;
+    private final double defaultSampleRate;
+    private final Map<String, Double> sampleRates;
+    private final long slowThresholdNanos;
+    private final String[] redactedFields;
+    private final Map<Method, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final ClassValue<Field[]> loggedFields = new ClassValue<>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            return Arrays.stream(type.getDeclaredFields())
+                    .filter(field -> !Modifier.isStatic(field.getModifiers()) && field.trySetAccessible())
+                    .toArray(Field[]::new);
+        }
+    };
+
+    /**
+     * The registry is looked up on the first call of each endpoint: aspects are created before the metrics
+     * auto-configuration, and asking for the registry here would close a cycle through the beans it depends on.
+     */
+    @Autowired
+    public LoggingAspect(ObjectProvider<MeterRegistry> meterRegistry,
+                         @Value("${requestLogging.enabled:true}") boolean enabled,
+                         @Value("${requestLogging.defaultSampleRate:0.01}") double defaultSampleRate,
+                         @Value("${requestLogging.sampleRates:}") String sampleRates,
+                         @Value("${requestLogging.slowThreshold:500ms}") Duration slowThreshold,
+                         @Value("${requestLogging.redactedFields:password,secret,token,authorization}") String redactedFields) {
+        this(meterRegistry::getObject, enabled, defaultSampleRate, sampleRates, slowThreshold, redactedFields);
+    }
+
+    LoggingAspect(Supplier<MeterRegistry> meterRegistry, boolean enabled, double defaultSampleRate, String sampleRates,
+                  Duration slowThreshold, String redactedFields) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.defaultSampleRate = defaultSampleRate;
+        this.sampleRates = parseSampleRates(sampleRates);
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.redactedFields = Arrays.stream(redactedFields.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .map(name -> name.toLowerCase(Locale.ROOT))
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Only the controllers themselves: advising a bean post-processor or configuration class that happens to live in
+     * the package would create this aspect, and the registry, while the context is still wiring infrastructure.
+     */
+    @Pointcut("within(com.example.SpringSecurityApplication.controllers..*) "
+            + "&& @within(org.springframework.web.bind.annotation.RestController)")
     public void controllerPointcut() {}
 
     @Around("controllerPointcut()")
     public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
-        long startTime = System.currentTimeMillis();
+        Endpoint endpoint = endpoints.computeIfAbsent(((MethodSignature) joinPoint.getSignature()).getMethod(), this::endpoint);
+        Timer.Sample sample = Timer.start();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            long duration = sample.stop(endpoint.failureTimer());
+            if (enabled) {
+                log.atError()
+                        .addKeyValue("endpoint", endpoint.name())
+                        .addKeyValue("durationUs", duration / 1000)
+                        .addKeyValue("args", describeArguments(endpoint, joinPoint.getArgs()))
+                        .addKeyValue("error", e.getClass().getSimpleName())
+                        .log("Произошла ошибка при вызове метода {}: {}", endpoint.name(), e.getMessage());
+            }
+            throw e;
+        }
+        long duration = sample.stop(endpoint.successTimer());
+        Level level = !enabled ? null : duration >= slowThresholdNanos ? Level.WARN : sampled(endpoint) ? Level.INFO : null;
+        if (level != null && log.isEnabledForLevel(level)) {
+            log.atLevel(level)
+                    .addKeyValue("endpoint", endpoint.name())
+                    .addKeyValue("durationUs", duration / 1000)
+                    .addKeyValue("args", describeArguments(endpoint, joinPoint.getArgs()))
+                    .addKeyValue("result", describeResult(result))
+                    .log("Метод {} выполнился за {} мкс", endpoint.name(), duration / 1000);
+        }
+        return result;
+    }
 
-        String methodName = joinPoint.getSignature().getName();
-        Object[] args = joinPoint.getArgs();
+    private static boolean sampled(Endpoint endpoint) {
+        return endpoint.sampleRate() >= 1.0
+                || (endpoint.sampleRate() > 0 && ThreadLocalRandom.current().nextDouble() < endpoint.sampleRate());
+    }
 
-        log.info("Выполнение метода {} с аргументами {}", methodName, args);
+    Endpoint endpoint(Method method) {
+        String name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        Parameter[] parameters = method.getParameters();
+        String[] parameterNames = Arrays.stream(parameters)
+                .map(Parameter::getName)
+                .toArray(String[]::new);
+        boolean[] redacted = new boolean[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            redacted[i] = isRedacted(parameters[i]);
+        }
+        MeterRegistry registry = meterRegistry.get();
+        return new Endpoint(name, sampleRates.getOrDefault(name, defaultSampleRate), parameterNames, redacted,
+                controllerTimer(registry, name, "success"), controllerTimer(registry, name, "failure"));
+    }
 
-        Object result = joinPoint.proceed(args);
+    private static Timer controllerTimer(MeterRegistry meterRegistry, String endpoint, String outcome) {
+        return Timer.builder("controller.invocation")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
-        long endTime = System.currentTimeMillis();
-        long duration = endTime - startTime;
+    Map<String, Object> describeArguments(Endpoint endpoint, Object[] args) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String name = i < endpoint.parameterNames().length ? endpoint.parameterNames()[i] : "arg" + i;
+            boolean redacted = i < endpoint.redacted().length && endpoint.redacted()[i];
+            description.put(name, redacted ? REDACTED : describe(args[i], true));
+        }
+        return description;
+    }
 
-        log.info("Метод {} выполнился за {} мс с результатом {}", methodName, duration, result);
+    private Object describe(Object value, boolean expand) {
+        if (value == null || value instanceof Number || value instanceof Boolean || value instanceof Enum<?>
+                || value instanceof UUID) {
+            return value;
+        }
+        if (value instanceof CharSequence text) {
+            return text.length() > MAX_VALUE_LENGTH ? text.subSequence(0, MAX_VALUE_LENGTH) + "..." : text.toString();
+        }
+        if (!expand || !value.getClass().getName().startsWith(APPLICATION_PACKAGE)) {
+            return value.getClass().getSimpleName();
+        }
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (Field field : loggedFields.get(value.getClass())) {
+            try {
+                fields.put(field.getName(), isRedacted(field) ? REDACTED : describe(field.get(value), false));
+            } catch (IllegalAccessException e) {
+                fields.put(field.getName(), "?");
+            }
+        }
+        return fields;
+    }
 
-        return result;
+    private static String describeResult(Object result) {
+        if (result == null) {
+            return null;
+        }
+        if (result instanceof ResponseEntity<?> response) {
+            return "ResponseEntity " + response.getStatusCode().value();
+        }
+        return result.getClass().getSimpleName();
     }
 
+    private static boolean isRedacted(Parameter parameter) {
+        if (parameter.isAnnotationPresent(Redacted.class)) {
+            return true;
+        }
+        RequestHeader header = parameter.getAnnotation(RequestHeader.class);
+        if (header == null) {
+            return false;
+        }
+        String headerName = !header.name().isEmpty() ? header.name() : header.value();
+        return CREDENTIAL_HEADERS.contains((headerName.isEmpty() ? parameter.getName() : headerName).toLowerCase(Locale.ROOT));
+    }
+
+    private boolean isRedacted(Field field) {
+        if (field.isAnnotationPresent(Redacted.class)) {
+            return true;
+        }
+        String lowerCase = field.getName().toLowerCase(Locale.ROOT);
+        for (String redactedField : redactedFields) {
+            if (lowerCase.contains(redactedField)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses {@code Controller.method=rate} pairs separated by commas.
+     */
+    private static Map<String, Double> parseSampleRates(String sampleRates) {
+        Map<String, Double> rates = new HashMap<>();
+        for (String entry : sampleRates.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected Controller.method=rate in requestLogging.sampleRates: " + entry);
+            }
+            rates.put(entry.substring(0, separator).trim(), Double.parseDouble(entry.substring(separator + 1).trim()));
+        }
+        return Map.copyOf(rates);
+    }
 
-    @AfterThrowing(pointcut = "controllerPointcut()", throwing = "e")
-    public void afterThrowing(JoinPoint joinPoint, Exception e) {
-        log.error("Произошла ошибка при вызове метода: {}", joinPoint.getSignature().toLongString());
-        log.error("Ошибка: {}", e.getMessage());
+    record Endpoint(String name, double sampleRate, String[] parameterNames, boolean[] redacted,
+                    Timer successTimer, Timer failureTimer) {
     }
 }
@@ -1,14 +1,54 @@
 package com.example.SpringSecurityApplication.config;
 
+import com.example.SpringSecurityApplication.service.BoundedPasswordEncoder;
+import com.example.SpringSecurityApplication.service.PasswordHashCalibrator;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
 @Configuration
 public class PasswordEncoderConfig {
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${passwordHashing.algorithm:bcrypt}") String algorithm,
+                                           @Value("${passwordHashing.targetHashTime:100ms}") Duration targetHashTime,
+                                           @Value("${passwordHashing.threads:0}") int threads,
+                                           @Value("${passwordHashing.queueCapacity:64}") int queueCapacity,
+                                           @Value("${passwordHashing.maxWait:2s}") Duration maxWait) {
+        // Leave half of the cores to the cheap endpoints unless configured otherwise.
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(delegatingPasswordEncoder(algorithm, targetHashTime), poolSize, queueCapacity, maxWait, meterRegistry);
+    }
+
+    private PasswordEncoder delegatingPasswordEncoder(String algorithm, Duration targetHashTime) {
+        BCryptPasswordEncoder bcrypt;
+        if ("bcrypt".equals(algorithm)) {
+            int strength = PasswordHashCalibrator.bcryptStrength(targetHashTime);
+            log.info("Using BCrypt strength {} for a target hash time of {} ms", strength, targetHashTime.toMillis());
+            bcrypt = new BCryptPasswordEncoder(strength);
+        } else {
+            bcrypt = new BCryptPasswordEncoder();
+        }
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", bcrypt);
+        encoders.put("pbkdf2@SpringSecurity_v5_8", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalStateException("Unsupported passwordHashing.algorithm: " + algorithm);
+        }
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(algorithm, encoders);
+        // Hashes stored before the {id} prefix was introduced are plain BCrypt.
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return delegating;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,59 @@
+package com.example.SpringSecurityApplication.config;
+
+import com.example.SpringSecurityApplication.filter.JwtAuthWebFilter;
+import com.example.SpringSecurityApplication.service.AccessTokenDenylist;
+import com.example.SpringSecurityApplication.service.JwtService;
+import com.example.SpringSecurityApplication.service.ReactiveUserInfoService;
+import com.example.SpringSecurityApplication.service.RevocationService;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+@Configuration
+@Profile("reactive")
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, JwtService jwtService, ReactiveUserInfoService userDetailsService,
+                                                         RevocationService revocationService, AccessTokenDenylist accessTokenDenylist) {
+        // Not a bean on purpose: WebFlux would otherwise also register it as a global WebFilter.
+        JwtAuthWebFilter authFilter = new JwtAuthWebFilter(jwtService, userDetailsService, revocationService, accessTokenDenylist);
+        return http
+                .authorizeExchange((exchange) -> exchange
+                        .pathMatchers("/api/register", "/api/refreshToken", "/api/login", "/.well-known/jwks.json").permitAll()
+                        .pathMatchers("/api/user").hasAuthority("USER")
+                        .pathMatchers("/api/admin", "/actuator/**").hasAuthority("ADMIN")
+                        .anyExchange().denyAll()
+                )
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .addFilterAt(authFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+
+    @Bean
+    public ReactiveAuthenticationManager reactiveAuthenticationManager(ReactiveUserInfoService userDetailsService, PasswordEncoder passwordEncoder) {
+        // Password checks run on boundedElastic and from there on the bounded hashing pool, never on the event loop.
+        UserDetailsRepositoryReactiveAuthenticationManager authenticationManager = new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+        return authenticationManager;
+    }
+
+    @Bean
+    public NettyReactiveWebServerFactory reactiveWebServerFactory() {
+        // Tomcat is on the classpath for the servlet profile and would otherwise be picked first.
+        return new NettyReactiveWebServerFactory();
+    }
+}
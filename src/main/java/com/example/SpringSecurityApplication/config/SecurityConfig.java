@@ -1,10 +1,19 @@
 package com.example.SpringSecurityApplication.config;
 
+import com.example.SpringSecurityApplication.filter.ConcurrencyLimitFilter;
 import com.example.SpringSecurityApplication.filter.JwtAuthFilter;
+import com.example.SpringSecurityApplication.filter.LoginRateLimitFilter;
 import com.example.SpringSecurityApplication.repository.UserInfoRepository;
+import com.example.SpringSecurityApplication.service.KnownUsernames;
+import com.example.SpringSecurityApplication.service.LoginRateLimiter;
+import com.example.SpringSecurityApplication.service.PasswordUpgradeService;
+import com.example.SpringSecurityApplication.service.RehashingAuthenticationProvider;
+import com.example.SpringSecurityApplication.service.UserDetailsCache;
 import com.example.SpringSecurityApplication.service.UserInfoService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -22,33 +31,43 @@ import static org.springframework.security.config.Customizer.withDefaults;
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
+@Profile("!reactive")
 public class SecurityConfig {
     private final JwtAuthFilter authFilter;
-    public SecurityConfig(JwtAuthFilter authFilter) {
+    private final LoginRateLimitFilter loginRateLimitFilter;
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
+    public SecurityConfig(JwtAuthFilter authFilter, LoginRateLimitFilter loginRateLimitFilter,
+                          ConcurrencyLimitFilter concurrencyLimitFilter) {
         this.authFilter = authFilter;
+        this.loginRateLimitFilter = loginRateLimitFilter;
+        this.concurrencyLimitFilter = concurrencyLimitFilter;
     }
 
     @Bean
-    public UserDetailsService userDetailsService(UserInfoRepository repository, PasswordEncoder passwordEncoder) {
-        return new UserInfoService(repository, passwordEncoder);
+    public UserDetailsService userDetailsService(UserInfoRepository repository, PasswordEncoder passwordEncoder,
+                                                 UserDetailsCache userDetailsCache, KnownUsernames knownUsernames) {
+        return new UserInfoService(repository, passwordEncoder, userDetailsCache, knownUsernames);
     }
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http, AuthenticationProvider authenticationProvider) throws Exception {
         return http
                 .authorizeHttpRequests((auth) -> auth
                         .requestMatchers("/api/register", "/api/refreshToken", "/api/login").permitAll()
-                        .requestMatchers("/swagger-ui/**", "/swagger-resources/*", "/v3/api-docs/**").permitAll()
-                        .requestMatchers("/api/user", "/api/admin").authenticated()
+                        .requestMatchers("/swagger-ui/**", "/swagger-resources/*", "/v3/api-docs/**", "/.well-known/jwks.json").permitAll()
+                        .requestMatchers("/api/user", "/api/logout", "/api/admin", "/api/admin/**").authenticated()
+                        .requestMatchers("/actuator/**").hasAuthority("ADMIN")
                 )
                 .httpBasic(withDefaults()).csrf((csrf) -> csrf.disable())
                 .sessionManagement((session) -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authenticationProvider(authenticationProvider)
                 .addFilterBefore(authFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(loginRateLimitFilter, JwtAuthFilter.class)
+                .addFilterBefore(concurrencyLimitFilter, LoginRateLimitFilter.class)
                 .build();
     }
     @Bean
-    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder) {
-        DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
+    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder, PasswordUpgradeService passwordUpgradeService, LoginRateLimiter loginRateLimiter, MeterRegistry meterRegistry) {
+        DaoAuthenticationProvider authenticationProvider = new RehashingAuthenticationProvider(passwordUpgradeService, loginRateLimiter, meterRegistry);
         authenticationProvider.setUserDetailsService(userDetailsService);
         authenticationProvider.setPasswordEncoder(passwordEncoder);
         return authenticationProvider;
@@ -0,0 +1,61 @@
+package com.example.SpringSecurityApplication.config;
+
+import com.example.SpringSecurityApplication.service.LocalSharedTokenStore;
+import com.example.SpringSecurityApplication.service.RedisSharedTokenStore;
+import com.example.SpringSecurityApplication.service.SharedTokenStore;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.protocol.ProtocolVersion;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+@Configuration
+public class SharedTokenStoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "sharedStore.type", havingValue = "local", matchIfMissing = true)
+    public SharedTokenStore localSharedTokenStore(@Value("${sharedStore.local.maxSize:1000000}") long maxSize) {
+        return new LocalSharedTokenStore(maxSize);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "sharedStore.type", havingValue = "redis")
+    public LettuceConnectionFactory sharedStoreConnectionFactory(@Value("${sharedStore.redis.host:localhost}") String host,
+                                                                 @Value("${sharedStore.redis.port:6379}") int port,
+                                                                 @Value("${sharedStore.redis.timeout:500ms}") Duration timeout,
+                                                                 @Value("${sharedStore.redis.poolSize:16}") int poolSize) {
+        return redisConnectionFactory(host, port, timeout, poolSize);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "sharedStore.type", havingValue = "redis")
+    public SharedTokenStore redisSharedTokenStore(LettuceConnectionFactory sharedStoreConnectionFactory) {
+        return new RedisSharedTokenStore(new StringRedisTemplate(sharedStoreConnectionFactory));
+    }
+
+    /**
+     * Pooled Lettuce connections speaking RESP2, so the client needs nothing beyond the basic commands
+     * (no {@code HELLO}) and pipelines get a connection of their own.
+     */
+    public static LettuceConnectionFactory redisConnectionFactory(String host, int port, Duration timeout, int poolSize) {
+        GenericObjectPoolConfig<?> poolConfig = new GenericObjectPoolConfig<>();
+        poolConfig.setMaxTotal(poolSize);
+        poolConfig.setMaxIdle(poolSize);
+        poolConfig.setMinIdle(Math.min(2, poolSize));
+        poolConfig.setMaxWait(timeout);
+        LettucePoolingClientConfiguration clientConfig = LettucePoolingClientConfiguration.builder()
+                .poolConfig(poolConfig)
+                .commandTimeout(timeout)
+                .clientOptions(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP2).build())
+                .build();
+        return new LettuceConnectionFactory(new RedisStandaloneConfiguration(host, port), clientConfig);
+    }
+}
@@ -1,17 +1,89 @@
 package com.example.SpringSecurityApplication.controllers;
 
+import com.example.SpringSecurityApplication.model.dto.UserImportReportDTO;
+import com.example.SpringSecurityApplication.service.AccessTokenDenylist;
+import com.example.SpringSecurityApplication.service.RevocationService;
+import com.example.SpringSecurityApplication.service.UserDetailsCache;
+import com.example.SpringSecurityApplication.service.UserImportService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
+@Profile("!reactive")
 public class AdminController {
+    private final UserDetailsCache userDetailsCache;
+    private final RevocationService revocationService;
+    private final AccessTokenDenylist accessTokenDenylist;
+    private final UserImportService userImportService;
+    private final Duration tokenExpiration;
+
+    public AdminController(UserDetailsCache userDetailsCache, RevocationService revocationService,
+                           AccessTokenDenylist accessTokenDenylist, UserImportService userImportService,
+                           @Value("${jwt.tokenExpiration}") Duration tokenExpiration) {
+        this.userDetailsCache = userDetailsCache;
+        this.revocationService = revocationService;
+        this.accessTokenDenylist = accessTokenDenylist;
+        this.userImportService = userImportService;
+        this.tokenExpiration = tokenExpiration;
+    }
 
     @PreAuthorize("hasAuthority('ADMIN')")
     @GetMapping("/admin")
     public String example() {
         return "Hello World";
     }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/admin/userCache")
+    public Map<String, Long> userCacheStats() {
+        CacheStats stats = userDetailsCache.stats();
+        return Map.of(
+                "size", userDetailsCache.size(),
+                "hits", stats.hitCount(),
+                "misses", stats.missCount(),
+                "evictions", stats.evictionCount());
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping("/admin/users/{username}/revoke")
+    public ResponseEntity<Void> revokeUserTokens(@PathVariable String username) {
+        revocationService.revokeUser(username);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * The expiry of the token is not known here, so the id is denied for the longest possible token lifetime.
+     */
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping("/admin/tokens/{jti}/revoke")
+    public ResponseEntity<Void> revokeToken(@PathVariable String jti) {
+        accessTokenDenylist.revoke(jti, new Date(System.currentTimeMillis() + tokenExpiration.toMillis()));
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Streams {@code application/x-ndjson} or {@code text/csv} input into the users table, see {@link UserImportService}.
+     */
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping(value = "/admin/users/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public UserImportReportDTO importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                           InputStream body) throws IOException {
+        UserImportService.Format format = MediaType.APPLICATION_NDJSON.includes(MediaType.parseMediaType(contentType))
+                ? UserImportService.Format.NDJSON
+                : UserImportService.Format.CSV;
+        return userImportService.importUsers(body, format);
+    }
 }
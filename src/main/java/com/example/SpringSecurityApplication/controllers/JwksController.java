@@ -0,0 +1,48 @@
+package com.example.SpringSecurityApplication.controllers;
+
+import com.example.SpringSecurityApplication.service.JwtService;
+import com.example.SpringSecurityApplication.service.SigningKeyRing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+/**
+ * Publishes the ES256 verification keys so other services can check access tokens themselves.
+ * Shared by the servlet and the reactive profile.
+ */
+@RestController
+public class JwksController {
+
+    static final String EMPTY_JWKS = "{\"keys\":[]}";
+
+    private final JwtService jwtService;
+    private final CacheControl cacheControl;
+
+    public JwksController(JwtService jwtService, @Value("${jwt.jwksMaxAge:5m}") Duration maxAge) {
+        this.jwtService = jwtService;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+    }
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<String> jwks(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        SigningKeyRing keyRing = jwtService.keyRing();
+        String body = keyRing != null ? keyRing.jwksJson() : EMPTY_JWKS;
+        String etag = keyRing != null ? keyRing.etag() : "\"empty\"";
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+}
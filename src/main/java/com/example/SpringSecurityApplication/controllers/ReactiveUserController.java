@@ -0,0 +1,82 @@
+package com.example.SpringSecurityApplication.controllers;
+
+import com.example.SpringSecurityApplication.model.UserInfo;
+import com.example.SpringSecurityApplication.model.dto.AuthRequestDTO;
+import com.example.SpringSecurityApplication.model.dto.JwtResponseDTO;
+import com.example.SpringSecurityApplication.model.dto.RefreshTokenRequestDTO;
+import com.example.SpringSecurityApplication.service.JwtService;
+import com.example.SpringSecurityApplication.service.ReactiveRefreshTokenService;
+import com.example.SpringSecurityApplication.service.ReactiveUserInfoService;
+import com.example.SpringSecurityApplication.service.UserInfoDetails;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of {@link UserController} and {@link AdminController} for the {@code reactive} profile.
+ * Request parameters are bound the same way as in the servlet controllers.
+ */
+@RestController
+@RequestMapping("/api")
+@Profile("reactive")
+public class ReactiveUserController {
+    private final ReactiveUserInfoService service;
+    private final JwtService jwtService;
+    private final ReactiveRefreshTokenService refreshTokenService;
+    private final ReactiveAuthenticationManager authenticationManager;
+
+    public ReactiveUserController(ReactiveUserInfoService service, JwtService jwtService, ReactiveRefreshTokenService refreshTokenService, ReactiveAuthenticationManager authenticationManager) {
+        this.service = service;
+        this.jwtService = jwtService;
+        this.refreshTokenService = refreshTokenService;
+        this.authenticationManager = authenticationManager;
+    }
+
+    @PostMapping("/register")
+    public Mono<ResponseEntity<String>> addNewUser(@ModelAttribute UserInfo userInfo) {
+        return service.addUser(userInfo)
+                .map(response -> ResponseEntity.status(HttpStatus.CREATED).body(response));
+    }
+
+    @PostMapping("/login")
+    public Mono<JwtResponseDTO> authenticateAndGetToken(@ModelAttribute AuthRequestDTO authRequestDTO) {
+        return authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(authRequestDTO.getUsername(), authRequestDTO.getPassword()))
+                .map(authentication -> (UserInfoDetails) authentication.getPrincipal())
+                .flatMap(principal -> service.findUserByUsername(principal.getUsername())
+                        .flatMap(user -> refreshTokenService.createRefreshToken(user.getId()))
+                        .map(refreshToken -> JwtResponseDTO.builder()
+                                .accessToken(jwtService.generateToken(principal))
+                                .refreshToken(refreshToken.getToken())
+                                .build()));
+    }
+
+    @PostMapping("/refreshToken")
+    public Mono<JwtResponseDTO> refreshToken(@ModelAttribute RefreshTokenRequestDTO refreshTokenRequestDTO) {
+        return refreshTokenService.rotate(refreshTokenRequestDTO.getRefreshToken())
+                .flatMap(refreshToken -> service.findUserById(refreshToken.getUserId())
+                        .map(user -> JwtResponseDTO.builder()
+                                .accessToken(jwtService.generateToken(new UserInfoDetails(user.toUserInfo())))
+                                .refreshToken(refreshToken.getToken())
+                                .build()));
+    }
+
+    @GetMapping("/user")
+    public Mono<String> hello() {
+        return Mono.just("Hello World!");
+    }
+
+    @GetMapping("/admin")
+    public Mono<String> admin() {
+        return Mono.just("Hello World");
+    }
+
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<String> handleAuthenticationException(AuthenticationException e) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+    }
+}
@@ -5,15 +5,22 @@ import com.example.SpringSecurityApplication.model.UserInfo;
 import com.example.SpringSecurityApplication.model.dto.AuthRequestDTO;
 import com.example.SpringSecurityApplication.model.dto.JwtResponseDTO;
 import com.example.SpringSecurityApplication.model.dto.RefreshTokenRequestDTO;
+import com.example.SpringSecurityApplication.service.AccessTokenDenylist;
 import com.example.SpringSecurityApplication.service.JwtService;
 import com.example.SpringSecurityApplication.service.RefreshTokenService;
+import com.example.SpringSecurityApplication.service.UserInfoDetails;
 import com.example.SpringSecurityApplication.service.UserInfoService;
+import com.example.SpringSecurityApplication.service.VerifiedClaims;
+import com.example.SpringSecurityApplication.service.VerifiedTokenCache;
+import io.jsonwebtoken.JwtException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -26,17 +33,24 @@ import org.springframework.web.bind.annotation.*;
 @RestController
 @RequestMapping("/api")
 @Slf4j
+@Profile("!reactive")
 public class UserController {
+    private static final String BEARER_PREFIX = "Bearer ";
+
     private final UserInfoService service;
     private final JwtService jwtService;
     private final RefreshTokenService refreshTokenService;
     private final AuthenticationManager authenticationManager;
+    private final AccessTokenDenylist accessTokenDenylist;
+    private final VerifiedTokenCache verifiedTokenCache;
 
-    public UserController(UserInfoService service, JwtService jwtService, RefreshTokenService refreshTokenService, AuthenticationManager authenticationManager) {
+    public UserController(UserInfoService service, JwtService jwtService, RefreshTokenService refreshTokenService, AuthenticationManager authenticationManager, AccessTokenDenylist accessTokenDenylist, VerifiedTokenCache verifiedTokenCache) {
         this.service = service;
         this.jwtService = jwtService;
         this.refreshTokenService = refreshTokenService;
         this.authenticationManager = authenticationManager;
+        this.accessTokenDenylist = accessTokenDenylist;
+        this.verifiedTokenCache = verifiedTokenCache;
     }
 
     @Operation(summary = "Регистрация нового пользователя", requestBody =
@@ -53,9 +67,10 @@ public class UserController {
     public JwtResponseDTO authenticateAndGetToken(@RequestBody AuthRequestDTO authRequestDTO){
         Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(authRequestDTO.getUsername(), authRequestDTO.getPassword()));
         if(authentication.isAuthenticated()){
-            RefreshToken refreshToken = refreshTokenService.createRefreshToken(authRequestDTO.getUsername());
+            UserInfoDetails user = (UserInfoDetails) authentication.getPrincipal();
+            RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
             return JwtResponseDTO.builder()
-                    .accessToken(jwtService.generateToken(authRequestDTO.getUsername()))
+                    .accessToken(jwtService.generateToken(user))
                     .refreshToken(refreshToken.getToken())
                     .build();
 
@@ -68,16 +83,28 @@ public class UserController {
         @RequestBody(content = @Content(mediaType = "multipart/form-data", schema = @Schema(implementation = RefreshTokenRequestDTO.class))))
     @PostMapping("/refreshToken")
     public JwtResponseDTO refreshToken(@RequestBody RefreshTokenRequestDTO refreshTokenRequestDTO) {
-        JwtResponseDTO result =  refreshTokenService.findByToken(refreshTokenRequestDTO.getRefreshToken())
-                .map(refreshTokenService::verifyExpiration)
-                .map(RefreshToken::getUserInfo)
-                .map(userInfo -> {
-                    String accessToken = jwtService.generateToken(userInfo.getUsername());
-                    return JwtResponseDTO.builder()
-                            .accessToken(accessToken)
-                            .refreshToken(refreshTokenRequestDTO.getRefreshToken()).build();
-                }).orElseThrow(() -> new RuntimeException("Refresh Token is not in DB..!!"));
-        return result;
+        RefreshToken refreshToken = refreshTokenService.rotate(refreshTokenRequestDTO.getRefreshToken());
+        return JwtResponseDTO.builder()
+                .accessToken(jwtService.generateToken(service.loadUserByUsername(refreshToken.getUserInfo().getUsername())))
+                .refreshToken(refreshToken.getToken())
+                .build();
+    }
+
+    @Operation(summary = "Выход: отзыв текущего access токена")
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader) {
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        VerifiedClaims claims;
+        try {
+            claims = jwtService.parseAndValidate(authHeader.substring(BEARER_PREFIX.length()));
+        } catch (JwtException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        accessTokenDenylist.revoke(claims.id(), claims.expiration());
+        verifiedTokenCache.invalidate(authHeader);
+        return ResponseEntity.noContent().build();
     }
 
     @Operation(summary = "Тестовый эндпоинт")
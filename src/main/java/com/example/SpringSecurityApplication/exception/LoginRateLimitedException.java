@@ -0,0 +1,21 @@
+package com.example.SpringSecurityApplication.exception;
+
+import java.time.Duration;
+
+/**
+ * Deliberately not an {@code AuthenticationException}: it has to pass through the {@code ProviderManager} untouched
+ * and reach {@link RestExceptionHandler} as a 429 instead of a 401.
+ */
+public class LoginRateLimitedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public LoginRateLimitedException(Duration retryAfter) {
+        super("Too many login attempts, retry later");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.SpringSecurityApplication.exception;
+
+public class RefreshTokenStoreBacklogException extends RuntimeException {
+
+    public RefreshTokenStoreBacklogException() {
+        super("Refresh token writes are backed up, retry later");
+    }
+}
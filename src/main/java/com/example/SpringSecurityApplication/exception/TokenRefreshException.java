@@ -0,0 +1,8 @@
+package com.example.SpringSecurityApplication.exception;
+
+public class TokenRefreshException extends RuntimeException {
+
+    public TokenRefreshException(String message) {
+        super(message);
+    }
+}
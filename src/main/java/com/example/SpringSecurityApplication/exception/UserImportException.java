@@ -0,0 +1,12 @@
+package com.example.SpringSecurityApplication.exception;
+
+/**
+ * The import input as a whole cannot be read, e.g. a CSV without the expected header. Problems with single rows
+ * are reported per row instead.
+ */
+public class UserImportException extends RuntimeException {
+
+    public UserImportException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.SpringSecurityApplication.filter;
+
+import com.example.SpringSecurityApplication.service.ConcurrencyLimiter;
+import com.example.SpringSecurityApplication.service.ConcurrencyLimiter.Partition;
+import com.example.SpringSecurityApplication.service.ConcurrencyLimiter.Permit;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Sheds requests with an empty 503 and {@code Retry-After} when {@link ConcurrencyLimiter} has no room for them,
+ * before the token is verified or the body is read. Login and registration count against the
+ * {@link Partition#EXPENSIVE} limit, so a flood of password checks cannot starve requests with a valid token, and
+ * the other way round. Actuator endpoints are not limited, so metrics can still be scraped under overload, and
+ * neither is the bulk user import: it runs for minutes, and its latency would drag the limit of every other
+ * request down.
+ */
+@Component
+@Profile("!reactive")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private static final Set<String> EXPENSIVE_PATHS = Set.of("/api/login", "/api/register");
+    private static final String IMPORT_PATH = "/api/admin/users/import";
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return path.startsWith("/actuator/") || path.equals(IMPORT_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Partition partition = EXPENSIVE_PATHS.contains(request.getServletPath()) ? Partition.EXPENSIVE : Partition.CHEAP;
+        Permit permit = concurrencyLimiter.tryAcquire(partition);
+        if (permit == null) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permit.release();
+        }
+    }
+}
@@ -1,11 +1,20 @@
 package com.example.SpringSecurityApplication.filter;
 
+import com.example.SpringSecurityApplication.service.AccessTokenDenylist;
 import com.example.SpringSecurityApplication.service.JwtService;
+import com.example.SpringSecurityApplication.service.RevocationService;
 import com.example.SpringSecurityApplication.service.UserInfoService;
+import com.example.SpringSecurityApplication.service.VerifiedClaims;
+import com.example.SpringSecurityApplication.service.VerifiedTokenCache;
+import com.example.SpringSecurityApplication.service.VerifiedTokenCache.VerifiedToken;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,36 +23,90 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 @Component
+@Profile("!reactive")
 public class JwtAuthFilter extends OncePerRequestFilter {
-    private final JwtService jwtService;
+    private static final String BEARER_PREFIX = "Bearer ";
+
     private final UserInfoService userDetailsService;
+    private final RevocationService revocationService;
+    private final AccessTokenDenylist accessTokenDenylist;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final Function<String, VerifiedClaims> bearerVerifier;
+    private final WebAuthenticationDetailsSource authenticationDetailsSource = new WebAuthenticationDetailsSource();
+    private final Map<Outcome, Timer> outcomeTimers = new EnumMap<>(Outcome.class);
 
-    public JwtAuthFilter(JwtService jwtService, UserInfoService userDetailsService) {
-        this.jwtService = jwtService;
+    public JwtAuthFilter(JwtService jwtService, UserInfoService userDetailsService, RevocationService revocationService,
+                         AccessTokenDenylist accessTokenDenylist, VerifiedTokenCache verifiedTokenCache,
+                         MeterRegistry meterRegistry) {
         this.userDetailsService = userDetailsService;
+        this.revocationService = revocationService;
+        this.accessTokenDenylist = accessTokenDenylist;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.bearerVerifier = authHeader -> jwtService.parseAndValidate(authHeader.substring(BEARER_PREFIX.length()));
+        for (Outcome outcome : Outcome.values()) {
+            outcomeTimers.put(outcome, Timer.builder("auth.filter")
+                    .description("Time spent in the JWT filter itself, excluding the rest of the chain")
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.INVALID;
+        try {
+            outcome = authenticate(request);
+        } catch (ExpiredJwtException e) {
+            outcome = Outcome.EXPIRED;
+            throw e;
+        } finally {
+            outcomeTimers.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private Outcome authenticate(HttpServletRequest request) {
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
-            username = jwtService.extractUsername(token);
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            return Outcome.NO_TOKEN;
         }
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtService.validateToken(token, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+        VerifiedToken verified = verifiedTokenCache.get(authHeader, bearerVerifier);
+        if (SecurityContextHolder.getContext().getAuthentication() != null) {
+            return Outcome.ALREADY_AUTHENTICATED;
         }
-        filterChain.doFilter(request, response);
+        if (revocationService.isRevoked(verified.claims()) || accessTokenDenylist.isRevoked(verified.claims())) {
+            verifiedTokenCache.invalidate(authHeader);
+            return Outcome.REVOKED;
+        }
+        VerifiedClaims claims = verified.claims();
+        UserDetails userDetails = verified.principal() != null
+                ? verified.principal()
+                : userDetailsService.loadUserByUsername(claims.username());
+        if (!claims.username().equals(userDetails.getUsername())) {
+            return Outcome.USER_MISMATCH;
+        }
+        if (claims.predates(userDetails)) {
+            verifiedTokenCache.invalidate(authHeader);
+            return Outcome.REVOKED;
+        }
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        authToken.setDetails(authenticationDetailsSource.buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+        return Outcome.AUTHENTICATED;
+    }
+
+    private enum Outcome {
+        NO_TOKEN, AUTHENTICATED, ALREADY_AUTHENTICATED, INVALID, EXPIRED, REVOKED, USER_MISMATCH
     }
 }
@@ -0,0 +1,68 @@
+package com.example.SpringSecurityApplication.filter;
+
+import com.example.SpringSecurityApplication.service.AccessTokenDenylist;
+import com.example.SpringSecurityApplication.service.JwtService;
+import com.example.SpringSecurityApplication.service.RevocationService;
+import com.example.SpringSecurityApplication.service.UserInfoDetails;
+import com.example.SpringSecurityApplication.service.VerifiedClaims;
+import io.jsonwebtoken.JwtException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+
+/**
+ * Reactive counterpart of {@link JwtAuthFilter}. Signature verification is CPU-only and cheap enough
+ * for the event loop; the user lookup in lookup mode goes through the non-blocking R2DBC repository.
+ * Revoked and denied tokens are rejected the same way as in {@link JwtAuthFilter}; that check may reach the shared
+ * store, so it runs on the bounded elastic scheduler.
+ */
+public class JwtAuthWebFilter implements WebFilter {
+    private final JwtService jwtService;
+    private final ReactiveUserDetailsService userDetailsService;
+    private final RevocationService revocationService;
+    private final AccessTokenDenylist accessTokenDenylist;
+
+    public JwtAuthWebFilter(JwtService jwtService, ReactiveUserDetailsService userDetailsService,
+                            RevocationService revocationService, AccessTokenDenylist accessTokenDenylist) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.revocationService = revocationService;
+        this.accessTokenDenylist = accessTokenDenylist;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+        VerifiedClaims claims;
+        try {
+            claims = jwtService.parseAndValidate(authHeader.substring(7));
+        } catch (JwtException e) {
+            return chain.filter(exchange);
+        }
+        Mono<UserDetails> userDetails = jwtService.isAuthoritiesInToken() && claims.hasAuthorities()
+                ? Mono.just(UserInfoDetails.fromClaims(claims))
+                : userDetailsService.findByUsername(claims.username());
+        return Mono.fromCallable(() -> revocationService.isRevoked(claims) || accessTokenDenylist.isRevoked(claims))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(revoked -> revoked ? Mono.<UserDetails>empty() : userDetails)
+                .filter(user -> claims.username().equals(user.getUsername()) && !claims.predates(user))
+                .map(user -> Optional.<Authentication>of(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities())))
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(authentication -> authentication
+                        .map(auth -> chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(auth)))
+                        .orElseGet(() -> chain.filter(exchange)));
+    }
+}
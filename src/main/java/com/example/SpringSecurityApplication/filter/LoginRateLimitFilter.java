@@ -0,0 +1,62 @@
+package com.example.SpringSecurityApplication.filter;
+
+import com.example.SpringSecurityApplication.service.LoginRateLimiter;
+import com.example.SpringSecurityApplication.service.LoginRateLimiter.Rejection;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Applies the per-IP limits of {@link LoginRateLimiter} to {@code POST /api/login} ahead of the rest of the chain.
+ * A rejected attempt gets an empty 429 with {@code Retry-After} without the body being read. A 401 from the login
+ * counts as a failure of the client's IP, a 200 clears it. The per-username limits need the request body and are
+ * applied in {@link com.example.SpringSecurityApplication.service.RehashingAuthenticationProvider}.
+ * <p>
+ * The IP is {@link HttpServletRequest#getRemoteAddr()}. Behind a reverse proxy it is the client's address only
+ * because {@code server.forward-headers-strategy} is {@code native}: Tomcat then takes it from
+ * {@code X-Forwarded-For}, but only when the request comes from a trusted proxy
+ * ({@code server.tomcat.remoteip.internal-proxies}, private networks by default), so clients cannot pick their own.
+ */
+@Component
+@Profile("!reactive")
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+    private static final String LOGIN_PATH = "/api/login";
+
+    private final LoginRateLimiter loginRateLimiter;
+
+    public LoginRateLimitFilter(LoginRateLimiter loginRateLimiter) {
+        this.loginRateLimiter = loginRateLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !LOGIN_PATH.equals(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String ip = request.getRemoteAddr();
+        Rejection rejection = loginRateLimiter.tryAcquire(LoginRateLimiter.Scope.IP, ip);
+        if (rejection != null) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (rejection.retryAfterMillis() + 999) / 1000)));
+            return;
+        }
+        filterChain.doFilter(request, response);
+        if (response.getStatus() == HttpStatus.UNAUTHORIZED.value()) {
+            loginRateLimiter.loginFailed(LoginRateLimiter.Scope.IP, ip);
+        } else if (response.getStatus() == HttpStatus.OK.value()) {
+            loginRateLimiter.loginSucceeded(LoginRateLimiter.Scope.IP, ip);
+        }
+    }
+}
@@ -7,20 +7,36 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
+import java.util.UUID;
 
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Table(name = "refresh_token", indexes = {
+        @Index(name = "idx_refresh_token_expiry_date", columnList = "expiry_date"),
+        @Index(name = "idx_refresh_token_family_id", columnList = "family_id")
+})
 public class RefreshToken {
 
+    /**
+     * Hibernate reserves ids 50 at a time, so an insert needs no generated-key round trip. The column default
+     * serves the plain SQL inserts of {@code InMemoryRefreshTokenStore} and the reactive profile.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", columnDefinition = "bigint default nextval('refresh_token_id_seq')")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_token_id_seq")
+    @SequenceGenerator(name = "refresh_token_id_seq", sequenceName = "refresh_token_id_seq", allocationSize = 50)
     private Long id;
+    @Transient
     private String token;
+    @Column(name = "token_hash", columnDefinition = "char(64)", nullable = false, unique = true)
+    private String tokenHash;
     private Instant expiryDate;
-    @OneToOne
+    @Column(name = "family_id", nullable = false)
+    private UUID familyId;
+    @ManyToOne
     @JoinColumn(name = "user_id", referencedColumnName = "id")
     private UserInfo userInfo;
 }
@@ -0,0 +1,32 @@
+package com.example.SpringSecurityApplication.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * R2DBC mapping of the {@code refresh_token} table used by the reactive profile; the schema itself is owned by {@link RefreshToken}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("refresh_token")
+public class RefreshTokenRecord {
+
+    @Id
+    private Long id;
+    @Transient
+    private String token;
+    private String tokenHash;
+    private Instant expiryDate;
+    private UUID familyId;
+    private Long userId;
+}
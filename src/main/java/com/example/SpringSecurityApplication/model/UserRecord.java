@@ -0,0 +1,46 @@
+package com.example.SpringSecurityApplication.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * R2DBC mapping of the {@code users} table used by the reactive profile; the schema itself is owned by {@link UserInfo}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("users")
+public class UserRecord {
+
+    @Id
+    private Long id;
+
+    @Column("name")
+    private String username;
+
+    private String password;
+
+    private String email;
+
+    private String roles;
+
+    @Column("token_version")
+    private long tokenVersion;
+
+    public UserInfo toUserInfo() {
+        return UserInfo.builder()
+                .id(id)
+                .username(username)
+                .password(password)
+                .email(email)
+                .roles(roles)
+                .tokenVersion(tokenVersion)
+                .build();
+    }
+}
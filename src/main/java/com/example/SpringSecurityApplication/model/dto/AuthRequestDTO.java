@@ -1,5 +1,6 @@
 package com.example.SpringSecurityApplication.model.dto;
 
+import com.example.SpringSecurityApplication.aspect.Redacted;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,5 +12,6 @@ import lombok.ToString;
 @ToString
 public class AuthRequestDTO {
     private String username;
+    @Redacted
     private String password;
 }
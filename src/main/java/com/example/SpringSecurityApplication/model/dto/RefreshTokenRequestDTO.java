@@ -1,5 +1,6 @@
 package com.example.SpringSecurityApplication.model.dto;
 
+import com.example.SpringSecurityApplication.aspect.Redacted;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -8,5 +9,6 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 public class RefreshTokenRequestDTO {
+    @Redacted
     private String refreshToken;
 }
@@ -0,0 +1,14 @@
+package com.example.SpringSecurityApplication.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserImportErrorDTO {
+    private long line;
+    private String username;
+    private String reason;
+}
@@ -0,0 +1,21 @@
+package com.example.SpringSecurityApplication.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class UserImportReportDTO {
+    private long imported;
+    private long failed;
+    /**
+     * The first {@code userImport.maxReportedErrors} failed rows; {@link #failed} counts all of them.
+     */
+    private List<UserImportErrorDTO> errors;
+}
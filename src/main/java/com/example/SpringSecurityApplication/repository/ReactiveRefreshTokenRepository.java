@@ -0,0 +1,24 @@
+package com.example.SpringSecurityApplication.repository;
+
+import com.example.SpringSecurityApplication.model.RefreshTokenRecord;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+@Repository
+public interface ReactiveRefreshTokenRepository extends R2dbcRepository<RefreshTokenRecord, Long> {
+
+    Mono<RefreshTokenRecord> findByTokenHash(String tokenHash);
+
+    @Modifying
+    @Query("DELETE FROM refresh_token WHERE id = :id")
+    Mono<Integer> consumeById(Long id);
+
+    @Modifying
+    @Query("DELETE FROM refresh_token WHERE family_id = :familyId")
+    Mono<Integer> deleteByFamilyId(UUID familyId);
+}
@@ -0,0 +1,15 @@
+package com.example.SpringSecurityApplication.repository;
+
+import com.example.SpringSecurityApplication.model.UserRecord;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveUserInfoRepository extends R2dbcRepository<UserRecord, Long> {
+    Mono<UserRecord> findByUsername(String username);
+
+    @Query("SELECT nextval('user_id_seq')")
+    Mono<Long> nextId();
+}
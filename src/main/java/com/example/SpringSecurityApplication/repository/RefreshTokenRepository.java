@@ -2,12 +2,42 @@ package com.example.SpringSecurityApplication.repository;
 
 import com.example.SpringSecurityApplication.model.RefreshToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * @return 1 if this call removed the token, 0 if a concurrent rotation got there first
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshToken r where r.id = :id")
+    int consumeById(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshToken r where r.familyId = :familyId")
+    int deleteByFamilyId(@Param("familyId") UUID familyId);
+
+    /**
+     * Deletes up to {@code batchSize} expired tokens in its own short transaction. Rows locked by
+     * another node's purge are skipped rather than waited on, so concurrent sweepers never overlap.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM refresh_token WHERE id IN (" +
+            "SELECT id FROM refresh_token WHERE expiry_date < :now " +
+            "ORDER BY expiry_date LIMIT :batchSize FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") Instant now, @Param("batchSize") int batchSize);
 }
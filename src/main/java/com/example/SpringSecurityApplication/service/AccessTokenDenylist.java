@@ -0,0 +1,108 @@
+package com.example.SpringSecurityApplication.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Denylist of individual access tokens by {@code jti}.
+ * <p>
+ * The authoritative entries live in the {@link SharedTokenStore} until the token expires. Every instance keeps
+ * a Bloom filter of the revoked ids, so a token that was never revoked is accepted without leaving the process; the
+ * store is only asked on a possible hit. Every {@code revocation.pollInterval} the filter takes in the ids revoked
+ * since the previous poll from a shared log scored by revocation time. The filter is split into two generations
+ * rotated every {@code jwt.tokenExpiration}, so ids of expired tokens drop out on their own.
+ */
+@Slf4j
+@Service
+public class AccessTokenDenylist {
+
+    static final String LOG_KEY = "revoked-jti";
+    private static final String KEY_PREFIX = "revoked-jti:";
+    /**
+     * Revocations are scored by the clock of the instance that made them; reading back this far before the last
+     * poll keeps a peer with a slightly earlier clock from being missed.
+     */
+    private static final long CLOCK_SKEW_MILLIS = 5_000;
+
+    private final SharedTokenStore sharedTokenStore;
+    private final Duration tokenExpiration;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+    private final Clock clock;
+    private volatile Generations generations;
+    private long lastPolled;
+
+    @Autowired
+    public AccessTokenDenylist(SharedTokenStore sharedTokenStore,
+                               @Value("${jwt.tokenExpiration}") Duration tokenExpiration,
+                               @Value("${revocation.expectedRevocations:100000}") long expectedRevocations,
+                               @Value("${revocation.falsePositiveRate:0.01}") double falsePositiveRate) {
+        this(sharedTokenStore, tokenExpiration, expectedRevocations, falsePositiveRate, Clock.systemUTC());
+    }
+
+    AccessTokenDenylist(SharedTokenStore sharedTokenStore, Duration tokenExpiration, long expectedRevocations,
+                        double falsePositiveRate, Clock clock) {
+        this.sharedTokenStore = sharedTokenStore;
+        this.tokenExpiration = tokenExpiration;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.clock = clock;
+        this.generations = new Generations(newFilter(), newFilter(), clock.millis());
+    }
+
+    public void revoke(String jti, Date expiration) {
+        long now = clock.millis();
+        if (jti == null || expiration.getTime() <= now) {
+            return;
+        }
+        sharedTokenStore.put(KEY_PREFIX + jti, "1", Duration.ofMillis(expiration.getTime() - now));
+        // Every token revoked up to tokenExpiration ago has expired by now, so older log entries are dropped.
+        sharedTokenStore.addToLog(LOG_KEY, jti, now, now - tokenExpiration.toMillis());
+        generations.current().put(jti);
+    }
+
+    public boolean isRevoked(VerifiedClaims claims) {
+        String jti = claims.id();
+        if (jti == null) {
+            return false;
+        }
+        Generations current = generations;
+        if (!current.current().mightContain(jti) && !current.previous().mightContain(jti)) {
+            return false;
+        }
+        return sharedTokenStore.get(KEY_PREFIX + jti) != null;
+    }
+
+    @Scheduled(fixedDelayString = "${revocation.pollInterval:PT1S}")
+    public void refresh() {
+        long now = clock.millis();
+        Generations current = generations;
+        if (now - current.startedAt() >= tokenExpiration.toMillis()) {
+            current = new Generations(newFilter(), current.current(), now);
+            generations = current;
+        }
+        try {
+            long since = Math.max(lastPolled - CLOCK_SKEW_MILLIS, now - tokenExpiration.toMillis());
+            for (String jti : sharedTokenStore.readLog(LOG_KEY, since)) {
+                current.current().put(jti);
+            }
+            lastPolled = now;
+        } catch (RuntimeException e) {
+            log.warn("Failed to read the revoked access token log: {}", e.getMessage());
+        }
+    }
+
+    private BloomFilter newFilter() {
+        return new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    private record Generations(BloomFilter current, BloomFilter previous, long startedAt) {
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.SpringSecurityApplication.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps the number of requests in flight, separately for the expensive paths (login and registration, which hash a
+ * password) and everything else, with limits that follow the measured latency.
+ * <p>
+ * Each partition runs the gradient algorithm: every completed request compares its latency with a long-term average
+ * of {@code longWindow} samples. While the latency stays within {@code rttTolerance} of that average the limit grows
+ * by {@code queueSize}; once requests get slower, for example because Postgres stalls and they queue for a
+ * connection, the limit shrinks in proportion, by at most half per sample. Changes are smoothed by
+ * {@code smoothing} and kept between {@code minLimit} and the partition's maximum. The limit does not grow while
+ * less than half of it is in use, so a quiet period does not leave it inflated.
+ * <p>
+ * Admission is a compare-and-set on the in-flight counter. Samples are folded in under a lock that is only tried,
+ * so a busy partition skips samples instead of making requests wait for each other. Latencies are measured with
+ * {@link System#nanoTime()}, which wall clock adjustments do not move.
+ */
+@Component
+public class ConcurrencyLimiter implements MeterBinder {
+
+    public enum Partition {
+        EXPENSIVE, CHEAP
+    }
+
+    private static final Permit UNLIMITED = new Permit(null, 0, null);
+
+    private final boolean enabled;
+    private final LongSupplier nanoTime;
+    private final Limit[] limits;
+
+    @Autowired
+    public ConcurrencyLimiter(@Value("${concurrencyLimit.enabled:true}") boolean enabled,
+                              @Value("${concurrencyLimit.expensiveInitialLimit:20}") int expensiveInitialLimit,
+                              @Value("${concurrencyLimit.expensiveMaxLimit:200}") int expensiveMaxLimit,
+                              @Value("${concurrencyLimit.cheapInitialLimit:100}") int cheapInitialLimit,
+                              @Value("${concurrencyLimit.cheapMaxLimit:1000}") int cheapMaxLimit,
+                              @Value("${concurrencyLimit.minLimit:4}") int minLimit,
+                              @Value("${concurrencyLimit.rttTolerance:1.5}") double rttTolerance,
+                              @Value("${concurrencyLimit.smoothing:0.2}") double smoothing,
+                              @Value("${concurrencyLimit.longWindow:600}") int longWindow,
+                              @Value("${concurrencyLimit.queueSize:4}") int queueSize) {
+        this(enabled,
+                new Rule(expensiveInitialLimit, minLimit, expensiveMaxLimit, rttTolerance, smoothing, longWindow, queueSize),
+                new Rule(cheapInitialLimit, minLimit, cheapMaxLimit, rttTolerance, smoothing, longWindow, queueSize),
+                System::nanoTime);
+    }
+
+    ConcurrencyLimiter(boolean enabled, Rule expensive, Rule cheap, LongSupplier nanoTime) {
+        this.enabled = enabled;
+        this.nanoTime = nanoTime;
+        this.limits = new Limit[]{new Limit(expensive), new Limit(cheap)};
+    }
+
+    /**
+     * @return {@code null} if the partition is at its limit and the request should be shed, otherwise a permit that
+     * must be released once the request completes
+     */
+    public Permit tryAcquire(Partition partition) {
+        if (!enabled) {
+            return UNLIMITED;
+        }
+        Limit limit = limits[partition.ordinal()];
+        return limit.tryAcquire() ? new Permit(nanoTime, nanoTime.getAsLong(), limit) : null;
+    }
+
+    public int getLimit(Partition partition) {
+        return limits[partition.ordinal()].limit;
+    }
+
+    public int getInFlight(Partition partition) {
+        return limits[partition.ordinal()].inFlight.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Partition partition : Partition.values()) {
+            Limit limit = limits[partition.ordinal()];
+            String tag = partition.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("http.concurrency.limit", limit, l -> l.limit)
+                    .description("Requests allowed in flight at once")
+                    .tag("partition", tag)
+                    .register(registry);
+            Gauge.builder("http.concurrency.in_flight", limit.inFlight, AtomicInteger::get)
+                    .tag("partition", tag)
+                    .register(registry);
+            FunctionCounter.builder("http.concurrency.rejected", limit.rejected, LongAdder::sum)
+                    .description("Requests shed with 503 because the partition was at its limit")
+                    .tag("partition", tag)
+                    .register(registry);
+        }
+    }
+
+    public static final class Permit {
+        private final LongSupplier nanoTime;
+        private final long startNanos;
+        private final Limit limit;
+
+        private Permit(LongSupplier nanoTime, long startNanos, Limit limit) {
+            this.nanoTime = nanoTime;
+            this.startNanos = startNanos;
+            this.limit = limit;
+        }
+
+        public void release() {
+            if (limit != null) {
+                limit.release(nanoTime.getAsLong() - startNanos);
+            }
+        }
+    }
+
+    /**
+     * @param longWindow number of samples the long-term latency average spans
+     * @param queueSize  how much the limit grows per sample while latency stays flat
+     */
+    record Rule(int initialLimit, int minLimit, int maxLimit, double rttTolerance, double smoothing, int longWindow,
+                int queueSize) {
+    }
+
+    private static final class Limit {
+        final Rule rule;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final LongAdder rejected = new LongAdder();
+        final ReentrantLock lock = new ReentrantLock();
+        volatile int limit;
+        double estimate;
+        double longRtt;
+        long samples;
+
+        Limit(Rule rule) {
+            this.rule = rule;
+            this.estimate = rule.initialLimit();
+            this.limit = rule.initialLimit();
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= limit) {
+                    rejected.increment();
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release(long rttNanos) {
+            int inFlightAtCompletion = inFlight.getAndDecrement();
+            if (rttNanos > 0 && lock.tryLock()) {
+                try {
+                    update(rttNanos, inFlightAtCompletion);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        private void update(double shortRtt, int inFlightAtCompletion) {
+            if (samples < rule.longWindow()) {
+                samples++;
+            }
+            longRtt = longRtt == 0 ? shortRtt : longRtt + (shortRtt - longRtt) / samples;
+            // After a long slowdown the average would take a whole window to come back down; let it catch up faster.
+            if (longRtt > shortRtt * 2) {
+                longRtt *= 0.95;
+            }
+            if (inFlightAtCompletion < estimate / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, rule.rttTolerance() * longRtt / shortRtt));
+            double next = estimate * gradient + rule.queueSize();
+            estimate = Math.max(rule.minLimit(), Math.min(rule.maxLimit(),
+                    estimate * (1 - rule.smoothing()) + next * rule.smoothing()));
+            limit = (int) estimate;
+        }
+    }
+}
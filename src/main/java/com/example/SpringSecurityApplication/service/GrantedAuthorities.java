@@ -0,0 +1,54 @@
+package com.example.SpringSecurityApplication.service;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shared, immutable authority lists for comma-separated role strings such as {@code "USER,ADMIN"}.
+ * An application has a handful of distinct role combinations, so every principal with the same roles
+ * reuses one list instead of splitting the string and allocating new authorities on each request.
+ * Past {@link #MAX_INTERNED} distinct combinations new lists are built but no longer remembered.
+ */
+public final class GrantedAuthorities {
+
+    static final int MAX_INTERNED = 1024;
+
+    private static final ConcurrentMap<String, List<GrantedAuthority>> LISTS = new ConcurrentHashMap<>();
+
+    private GrantedAuthorities() {
+    }
+
+    public static List<GrantedAuthority> of(String roles) {
+        List<GrantedAuthority> authorities = LISTS.get(roles);
+        if (authorities != null) {
+            return authorities;
+        }
+        authorities = parse(roles);
+        if (LISTS.size() < MAX_INTERNED) {
+            List<GrantedAuthority> previous = LISTS.putIfAbsent(roles, authorities);
+            return previous != null ? previous : authorities;
+        }
+        return authorities;
+    }
+
+    private static List<GrantedAuthority> parse(String roles) {
+        List<GrantedAuthority> authorities = new ArrayList<>(4);
+        int start = 0;
+        while (start <= roles.length()) {
+            int end = roles.indexOf(',', start);
+            if (end < 0) {
+                end = roles.length();
+            }
+            if (end > start) {
+                authorities.add(new SimpleGrantedAuthority(roles.substring(start, end)));
+            }
+            start = end + 1;
+        }
+        return List.copyOf(authorities);
+    }
+}
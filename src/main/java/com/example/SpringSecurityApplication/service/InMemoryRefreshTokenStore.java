@@ -0,0 +1,388 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.example.SpringSecurityApplication.exception.RefreshTokenStoreBacklogException;
+import com.example.SpringSecurityApplication.model.RefreshToken;
+import com.example.SpringSecurityApplication.model.UserInfo;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps active refresh tokens in memory and persists changes to Postgres in the background.
+ * <p>
+ * Tokens are spread over lock-striped shards by their digest; each shard also orders its tokens by expiry,
+ * so eviction only touches the expired head. Creates and deletes are queued and written by a single writer
+ * in JDBC batches, in the order they happened. The queue is bounded: a caller waits at most
+ * {@code enqueueTimeout} for room, then a new token is rejected with a 503 while a delete is dropped.
+ * A batch the database rejects is retried row by row, and a row that fails on its own is logged and dropped,
+ * so one bad row cannot hold up the queue; while the database is unreachable everything is kept and retried.
+ * On startup the map is rebuilt from the table. Writes still in the queue when the process dies, or dropped
+ * as above, are lost, which at worst logs out a few sessions or lets a just-rotated token survive until its expiry.
+ * <p>
+ * Each node only sees the tokens it issued or loaded at startup, so this store is meant for a single
+ * instance or sticky routing.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "refreshToken.store", havingValue = "memory")
+public class InMemoryRefreshTokenStore implements RefreshTokenStore, DisposableBean {
+
+    static final String INSERT_SQL = "INSERT INTO refresh_token (token_hash, family_id, expiry_date, user_id) VALUES (?, ?, ?, ?)";
+    static final String DELETE_SQL = "DELETE FROM refresh_token WHERE token_hash = ?";
+    static final String DELETE_FAMILY_SQL = "DELETE FROM refresh_token WHERE family_id = ?";
+    static final String LOAD_SQL = "SELECT r.token_hash, r.family_id, r.expiry_date, r.user_id, u.name " +
+            "FROM refresh_token r JOIN users u ON u.id = r.user_id WHERE r.expiry_date > ?";
+
+    private static final Comparator<Entry> EXPIRY_ORDER = Comparator.comparing(Entry::expiryDate)
+            .thenComparing(Entry::tokenHash);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Shard[] shards;
+    private final ConcurrentHashMap<UUID, String> liveTokenByFamily = new ConcurrentHashMap<>();
+    private final BlockingQueue<PendingWrite> pendingWrites;
+    private final List<PendingWrite> unwritten = new ArrayList<>();
+    private final int batchSize;
+    private final Duration enqueueTimeout;
+    private final Duration flushInterval;
+    private final Duration evictionInterval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("refresh-token-writer").daemon(true).factory());
+
+    public InMemoryRefreshTokenStore(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${refreshToken.memory.shards:16}") int shards,
+                                     @Value("${refreshToken.memory.batchSize:500}") int batchSize,
+                                     @Value("${refreshToken.memory.maxPendingWrites:100000}") int maxPendingWrites,
+                                     @Value("${refreshToken.memory.enqueueTimeout:1s}") Duration enqueueTimeout,
+                                     @Value("${refreshToken.memory.flushInterval:200ms}") Duration flushInterval,
+                                     @Value("${refreshToken.memory.evictionInterval:30s}") Duration evictionInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = new Shard[Integer.highestOneBit(Math.max(1, shards - 1)) << 1];
+        for (int i = 0; i < this.shards.length; i++) {
+            this.shards[i] = new Shard();
+        }
+        this.pendingWrites = new LinkedBlockingQueue<>(maxPendingWrites);
+        this.batchSize = batchSize;
+        this.enqueueTimeout = enqueueTimeout;
+        this.flushInterval = flushInterval;
+        this.evictionInterval = evictionInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        long startTime = System.nanoTime();
+        int loaded = load();
+        log.info("Loaded {} refresh tokens into memory in {} ms", loaded,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        scheduler.scheduleWithFixedDelay(this::flushQuietly,
+                flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::evictExpired,
+                evictionInterval.toMillis(), evictionInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Tokens are written with plain SQL, so the id and name of the principal are all that is needed; a JPA proxy
+     * would be loaded as soon as the name is read.
+     */
+    @Override
+    public UserInfo userReference(UserInfoDetails user) {
+        return UserInfo.builder().id(user.getId()).username(user.getUsername()).build();
+    }
+
+    @Override
+    public RefreshToken save(RefreshToken refreshToken) {
+        Entry entry = new Entry(refreshToken.getTokenHash(), refreshToken.getFamilyId(), refreshToken.getExpiryDate(),
+                refreshToken.getUserInfo().getId(), refreshToken.getUserInfo().getUsername());
+        put(entry);
+        if (!enqueue(new PendingWrite.Insert(entry))) {
+            remove(entry.tokenHash());
+            throw new RefreshTokenStoreBacklogException();
+        }
+        return refreshToken;
+    }
+
+    @Override
+    public Optional<RefreshToken> findByTokenHash(String tokenHash) {
+        Shard shard = shardFor(tokenHash);
+        shard.lock.lock();
+        try {
+            return Optional.ofNullable(shard.byHash.get(tokenHash)).map(Entry::toRefreshToken);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean consume(RefreshToken refreshToken) {
+        Entry removed = remove(refreshToken.getTokenHash());
+        if (removed == null) {
+            return false;
+        }
+        if (!enqueue(new PendingWrite.Delete(removed.tokenHash()))) {
+            log.warn("Refresh token write queue is full, the consumed token stays in the database until it expires");
+        }
+        return true;
+    }
+
+    @Override
+    public void delete(RefreshToken refreshToken) {
+        consume(refreshToken);
+    }
+
+    @Override
+    public int deleteFamily(UUID familyId) {
+        String tokenHash = liveTokenByFamily.get(familyId);
+        int removed = tokenHash != null && remove(tokenHash) != null ? 1 : 0;
+        if (!enqueue(new PendingWrite.DeleteFamily(familyId))) {
+            log.warn("Refresh token write queue is full, the revoked family {} stays in the database until it expires", familyId);
+        }
+        return removed;
+    }
+
+    int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                size += shard.byHash.size();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    int load() {
+        int[] loaded = {0};
+        RowCallbackHandler handler = rs -> {
+            put(new Entry(rs.getString(1), rs.getObject(2, UUID.class),
+                    rs.getObject(3, OffsetDateTime.class).toInstant(), rs.getLong(4), rs.getString(5)));
+            loaded[0]++;
+        };
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(LOAD_SQL);
+            statement.setFetchSize(batchSize);
+            statement.setObject(1, OffsetDateTime.ofInstant(Instant.now(), ZoneOffset.UTC));
+            return statement;
+        }, handler));
+        return loaded[0];
+    }
+
+    void evictExpired() {
+        Instant now = Instant.now();
+        int evicted = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                Entry oldest;
+                while ((oldest = shard.byExpiry.isEmpty() ? null : shard.byExpiry.first()) != null
+                        && oldest.expiryDate().isBefore(now)) {
+                    shard.byExpiry.pollFirst();
+                    shard.byHash.remove(oldest.tokenHash());
+                    liveTokenByFamily.remove(oldest.familyId(), oldest.tokenHash());
+                    evicted++;
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} expired refresh tokens from memory", evicted);
+        }
+    }
+
+    /**
+     * Writes everything queued so far. A batch the database rejects is written again one row at a time; what
+     * is left when the database cannot be reached stays in {@code unwritten} and is retried first on the next
+     * flush. Only called from the writer thread, or on shutdown after it stopped.
+     */
+    void flush() {
+        while (!unwritten.isEmpty() || pendingWrites.drainTo(unwritten, batchSize) > 0) {
+            try {
+                write(unwritten);
+            } catch (NonTransientDataAccessException e) {
+                if (isUnreachable(e)) {
+                    throw e;
+                }
+                writeOneByOne();
+            }
+            unwritten.clear();
+        }
+    }
+
+    private void writeOneByOne() {
+        Iterator<PendingWrite> iterator = unwritten.iterator();
+        while (iterator.hasNext()) {
+            PendingWrite write = iterator.next();
+            try {
+                write(List.of(write));
+            } catch (NonTransientDataAccessException e) {
+                if (isUnreachable(e)) {
+                    throw e;
+                }
+                log.error("Dropping refresh token {} the database rejects: {}", write.describe(), e.getMessage());
+            }
+            iterator.remove();
+        }
+    }
+
+    private static boolean isUnreachable(NonTransientDataAccessException e) {
+        return e instanceof DataAccessResourceFailureException;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Failed to persist refresh tokens, {} writes still queued: {}", pendingWrites.size() + unwritten.size(), e.getMessage());
+        }
+    }
+
+    private void write(List<PendingWrite> batch) {
+        Map<String, Entry> inserts = new LinkedHashMap<>();
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> familyDeletes = new ArrayList<>();
+        for (PendingWrite write : batch) {
+            switch (write) {
+                case PendingWrite.Insert insert -> inserts.put(insert.entry().tokenHash(), insert.entry());
+                case PendingWrite.Delete delete -> {
+                    if (inserts.remove(delete.tokenHash()) == null) {
+                        deletes.add(new Object[]{delete.tokenHash()});
+                    }
+                }
+                case PendingWrite.DeleteFamily deleteFamily -> {
+                    inserts.values().removeIf(entry -> entry.familyId().equals(deleteFamily.familyId()));
+                    familyDeletes.add(new Object[]{deleteFamily.familyId()});
+                }
+            }
+        }
+        List<Object[]> insertArgs = inserts.values().stream()
+                .map(entry -> new Object[]{entry.tokenHash(), entry.familyId(),
+                        OffsetDateTime.ofInstant(entry.expiryDate(), ZoneOffset.UTC), entry.userId()})
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!insertArgs.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, insertArgs);
+            }
+            if (!deletes.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+            }
+            if (!familyDeletes.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_FAMILY_SQL, familyDeletes);
+            }
+        });
+    }
+
+    private void put(Entry entry) {
+        Shard shard = shardFor(entry.tokenHash());
+        shard.lock.lock();
+        try {
+            Entry previous = shard.byHash.put(entry.tokenHash(), entry);
+            if (previous != null) {
+                shard.byExpiry.remove(previous);
+            }
+            shard.byExpiry.add(entry);
+        } finally {
+            shard.lock.unlock();
+        }
+        liveTokenByFamily.put(entry.familyId(), entry.tokenHash());
+    }
+
+    private Entry remove(String tokenHash) {
+        Shard shard = shardFor(tokenHash);
+        Entry removed;
+        shard.lock.lock();
+        try {
+            removed = shard.byHash.remove(tokenHash);
+            if (removed != null) {
+                shard.byExpiry.remove(removed);
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+        if (removed != null) {
+            liveTokenByFamily.remove(removed.familyId(), tokenHash);
+        }
+        return removed;
+    }
+
+    private boolean enqueue(PendingWrite write) {
+        try {
+            return pendingWrites.offer(write, enqueueTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing refresh token write", e);
+        }
+    }
+
+    private Shard shardFor(String tokenHash) {
+        return shards[Integer.parseInt(tokenHash, 0, 4, 16) & (shards.length - 1)];
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    private static final class Shard {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<String, Entry> byHash = new HashMap<>();
+        final NavigableSet<Entry> byExpiry = new TreeSet<>(EXPIRY_ORDER);
+    }
+
+    private record Entry(String tokenHash, UUID familyId, Instant expiryDate, Long userId, String username) {
+
+        RefreshToken toRefreshToken() {
+            return RefreshToken.builder()
+                    .tokenHash(tokenHash)
+                    .familyId(familyId)
+                    .expiryDate(expiryDate)
+                    .userInfo(UserInfo.builder().id(userId).username(username).build())
+                    .build();
+        }
+    }
+
+    private sealed interface PendingWrite {
+        String describe();
+
+        record Insert(Entry entry) implements PendingWrite {
+            public String describe() {
+                return "insert for user " + entry.userId() + " in family " + entry.familyId();
+            }
+        }
+
+        record Delete(String tokenHash) implements PendingWrite {
+            public String describe() {
+                return "delete";
+            }
+        }
+
+        record DeleteFamily(UUID familyId) implements PendingWrite {
+            public String describe() {
+                return "delete of family " + familyId;
+            }
+        }
+    }
+}
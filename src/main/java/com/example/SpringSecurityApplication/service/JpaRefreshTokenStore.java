@@ -0,0 +1,57 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.example.SpringSecurityApplication.model.RefreshToken;
+import com.example.SpringSecurityApplication.model.UserInfo;
+import com.example.SpringSecurityApplication.repository.RefreshTokenRepository;
+import com.example.SpringSecurityApplication.repository.UserInfoRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Component
+@ConditionalOnProperty(name = "refreshToken.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserInfoRepository userInfoRepository;
+
+    public JpaRefreshTokenStore(RefreshTokenRepository refreshTokenRepository, UserInfoRepository userInfoRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userInfoRepository = userInfoRepository;
+    }
+
+    /**
+     * A lazy proxy: the insert only needs its id, so the user is not selected.
+     */
+    @Override
+    public UserInfo userReference(UserInfoDetails user) {
+        return userInfoRepository.getReferenceById(user.getId());
+    }
+
+    @Override
+    public RefreshToken save(RefreshToken refreshToken) {
+        return refreshTokenRepository.save(refreshToken);
+    }
+
+    @Override
+    public Optional<RefreshToken> findByTokenHash(String tokenHash) {
+        return refreshTokenRepository.findByTokenHash(tokenHash);
+    }
+
+    @Override
+    public boolean consume(RefreshToken refreshToken) {
+        return refreshTokenRepository.consumeById(refreshToken.getId()) == 1;
+    }
+
+    @Override
+    public void delete(RefreshToken refreshToken) {
+        refreshTokenRepository.delete(refreshToken);
+    }
+
+    @Override
+    public int deleteFamily(UUID familyId) {
+        return refreshTokenRepository.deleteByFamilyId(familyId);
+    }
+}
@@ -1,47 +1,189 @@
 package com.example.SpringSecurityApplication.service;
 
-import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.security.Key;
 import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Component
 public class JwtService {
 
+    public static final String ROLES_CLAIM = "roles";
+    public static final String VERSION_CLAIM = "ver";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.tokenExpiration}")
     private Duration tokenExpiration;
 
+    @Value("${jwt.authoritiesInToken:false}")
+    private boolean authoritiesInToken;
+
+    @Value("${jwt.signingAlgorithm:HS256}")
+    private String signingAlgorithm = "HS256";
+
+    @Value("${jwt.keyDir:}")
+    private String keyDir;
+
+    @Autowired(required = false)
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    private volatile SigningKeys signingKeys;
+    private volatile JwtTimers timers;
+    private boolean asymmetric;
+
+    /**
+     * @throws IllegalStateException if {@code jwt.signingAlgorithm} is neither HS256 nor ES256
+     */
+    @PostConstruct
+    public void init() {
+        asymmetric = switch (signingAlgorithm.toUpperCase(Locale.ROOT)) {
+            case "HS256" -> false;
+            case "ES256" -> true;
+            default -> throw new IllegalStateException(
+                    "Unsupported jwt.signingAlgorithm " + signingAlgorithm + ", expected HS256 or ES256");
+        };
+        if (!asymmetric) {
+            reloadSecret(jwtSecret);
+        } else if (keyDir == null || keyDir.isBlank()) {
+            log.warn("jwt.keyDir is not set, signing with a generated ES256 key that is lost on restart");
+            reloadKeyRing(SigningKeyRing.generate());
+        } else {
+            reloadKeyRing(loadKeyRing());
+        }
+    }
+
+    /**
+     * Derives the signing key and verifying parser once and publishes them atomically,
+     * so in-flight requests see either the old or the new pair, never a mix.
+     */
+    public void reloadSecret(String secret) {
+        signingKeys = SigningKeys.hmac(secret);
+        timers = JwtTimers.register(meterRegistry, SignatureAlgorithm.HS256);
+        forgetVerifiedTokens();
+    }
+
+    public void reloadKeyRing(SigningKeyRing keyRing) {
+        signingKeys = SigningKeys.ecdsa(keyRing);
+        timers = JwtTimers.register(meterRegistry, SignatureAlgorithm.ES256);
+        forgetVerifiedTokens();
+    }
+
+    /**
+     * Picks up keys added to or removed from {@code jwt.keyDir} and a changed active kid, which is how keys are rotated.
+     * An unchanged directory leaves the current keys, and the tokens already verified with them, alone.
+     */
+    @Scheduled(initialDelayString = "${jwt.keyReloadInterval:PT1M}", fixedDelayString = "${jwt.keyReloadInterval:PT1M}")
+    public void reloadKeyRingFromDirectory() {
+        if (asymmetric && keyDir != null && !keyDir.isBlank()) {
+            try {
+                SigningKeyRing loaded = loadKeyRing();
+                SigningKeyRing current = keyRing();
+                if (current == null || !current.hasSameKeys(loaded)) {
+                    reloadKeyRing(loaded);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Keeping the current signing keys, failed to reload {}: {}", keyDir, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return the ES256 key ring, or {@code null} when tokens are signed with the shared HS256 secret
+     */
+    public SigningKeyRing keyRing() {
+        return signingKeys.keyRing();
+    }
+
     public String generateToken(String userName) {
         Map<String, Object> claims = new HashMap<>();
         return createAccessToken(claims, userName);
     }
 
+    /**
+     * Embeds the user's token version, which {@link RevocationService} compares against the latest one. With
+     * {@code jwt.authoritiesInToken} enabled the roles are embedded too, so
+     * {@link com.example.SpringSecurityApplication.filter.JwtAuthFilter} can authenticate the request from the
+     * verified claims alone.
+     */
+    public String generateToken(UserDetails userDetails) {
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof UserInfoDetails userInfoDetails) {
+            claims.put(VERSION_CLAIM, userInfoDetails.getVersion());
+        }
+        if (authoritiesInToken) {
+            claims.put(ROLES_CLAIM, userDetails.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .collect(Collectors.joining(",")));
+        }
+        return createAccessToken(claims, userDetails.getUsername());
+    }
+
+    /**
+     * @return whether the roles in a token's claims may be trusted instead of loading the user
+     */
+    public boolean isAuthoritiesInToken() {
+        return authoritiesInToken;
+    }
+
     private String createAccessToken(Map<String, Object> claims, String userName) {
-        return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(userName)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + tokenExpiration.toMillis()))
-                .signWith(getSignKey(), SignatureAlgorithm.HS256).compact();
+        long start = System.nanoTime();
+        try {
+            return sign(claims, userName);
+        } finally {
+            timers.sign().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
 
-    private Key getSignKey() {
-        byte[] keyBytes= Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private String sign(Map<String, Object> claims, String userName) {
+        long now = System.currentTimeMillis();
+        SigningKeys keys = signingKeys;
+        JwtBuilder builder = Jwts.builder();
+        if (keys.kid() != null) {
+            builder.setHeaderParam(JwsHeader.KEY_ID, keys.kid());
+        }
+        return builder
+                .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
+                .setSubject(userName)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + tokenExpiration.toMillis()))
+                .signWith(keys.key(), keys.algorithm()).compact();
     }
 
     public String extractUsername(String token) {
@@ -58,20 +200,92 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignKey())
-                .build()
+        return signingKeys.parser()
                 .parseClaimsJws(token)
                 .getBody();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Verifies the signature and expiry of the token with a single parse and returns its claims.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    public VerifiedClaims parseAndValidate(String token) {
+        long start = System.nanoTime();
+        JwtTimers timers = this.timers;
+        Timer timer = timers.verifyFailed();
+        try {
+            VerifiedClaims claims = VerifiedClaims.from(extractAllClaims(token));
+            timer = timers.verify();
+            return claims;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        final VerifiedClaims claims = parseAndValidate(token);
+        return (claims.username().equals(userDetails.getUsername()) && !claims.isExpired());
+    }
+
+    /**
+     * Tokens verified with a key that is no longer accepted must be checked again.
+     */
+    private void forgetVerifiedTokens() {
+        if (verifiedTokenCache != null) {
+            verifiedTokenCache.invalidateAll();
+        }
+    }
+
+    private SigningKeyRing loadKeyRing() {
+        try {
+            return SigningKeyRing.load(Path.of(keyDir));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read signing keys from " + keyDir, e);
+        }
+    }
+
+    private record JwtTimers(Timer sign, Timer verify, Timer verifyFailed) {
+
+        static JwtTimers register(MeterRegistry meterRegistry, SignatureAlgorithm algorithm) {
+            return new JwtTimers(timer(meterRegistry, "jwt.sign", algorithm, "success"),
+                    timer(meterRegistry, "jwt.verify", algorithm, "success"),
+                    timer(meterRegistry, "jwt.verify", algorithm, "failure"));
+        }
+
+        private static Timer timer(MeterRegistry meterRegistry, String name, SignatureAlgorithm algorithm, String outcome) {
+            return Timer.builder(name)
+                    .tag("algorithm", algorithm.getValue())
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+
+    private record SigningKeys(String kid, Key key, SignatureAlgorithm algorithm, JwtParser parser, SigningKeyRing keyRing) {
+
+        static SigningKeys hmac(String secret) {
+            Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+            return new SigningKeys(null, key, SignatureAlgorithm.HS256, Jwts.parserBuilder().setSigningKey(key).build(), null);
+        }
+
+        /**
+         * The verification key is looked up by the token's {@code kid} in a hash map of already decoded public keys.
+         */
+        static SigningKeys ecdsa(SigningKeyRing keyRing) {
+            JwtParser parser = Jwts.parserBuilder()
+                    .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                        @Override
+                        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                            Key key = keyRing.verificationKey(header.getKeyId());
+                            if (key == null) {
+                                throw new JwtException("Unknown signing key id: " + header.getKeyId());
+                            }
+                            return key;
+                        }
+                    })
+                    .build();
+            return new SigningKeys(keyRing.activeKid(), keyRing.signingKey(), SignatureAlgorithm.ES256, parser, keyRing);
+        }
     }
 }
@@ -0,0 +1,176 @@
+package com.example.SpringSecurityApplication.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bloom filter of every username in the {@code users} table, so a login or token for a name that does not exist
+ * fails without a database query. A name the filter does not contain certainly does not exist; a false positive
+ * just costs the query it would have cost anyway.
+ * <p>
+ * The filter is loaded once the application is ready and rebuilt every {@code knownUsernames.rebuildInterval},
+ * which also resizes it and forgets deleted users. Until the first load finishes every name is assumed to exist.
+ * New users are added locally and to a log in the {@link SharedTokenStore} that the other instances poll every
+ * {@code knownUsernames.pollInterval}, so a user registered on one instance may be reported unknown by another
+ * for at most that long.
+ */
+@Slf4j
+@Component
+public class KnownUsernames {
+
+    static final String LOG_KEY = "new-usernames";
+    static final String COUNT_SQL = "SELECT count(*) FROM users";
+    static final String LOAD_SQL = "SELECT name FROM users";
+
+    /**
+     * Log entries are scored with the clock of the instance that wrote them; reading a little further back than
+     * the last poll keeps a peer with a slightly earlier clock from being missed.
+     */
+    private static final long CLOCK_SKEW_MILLIS = 5_000;
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SharedTokenStore sharedTokenStore;
+    private final boolean enabled;
+    private final long expectedUsers;
+    private final double falsePositiveRate;
+    private final Duration logRetention;
+    private final Clock clock;
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+    private long lastPolled;
+
+    @Autowired
+    public KnownUsernames(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          SharedTokenStore sharedTokenStore,
+                          @Value("${knownUsernames.enabled:true}") boolean enabled,
+                          @Value("${knownUsernames.expectedUsers:1000000}") long expectedUsers,
+                          @Value("${knownUsernames.falsePositiveRate:0.01}") double falsePositiveRate,
+                          @Value("${knownUsernames.logRetention:1m}") Duration logRetention) {
+        this(jdbcTemplate, transactionManager, sharedTokenStore, enabled, expectedUsers, falsePositiveRate, logRetention,
+                Clock.systemUTC());
+    }
+
+    KnownUsernames(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                   SharedTokenStore sharedTokenStore, boolean enabled, long expectedUsers, double falsePositiveRate,
+                   Duration logRetention, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sharedTokenStore = sharedTokenStore;
+        this.enabled = enabled;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+        this.logRetention = logRetention;
+        this.clock = clock;
+    }
+
+    /**
+     * @return {@code false} only if the user certainly does not exist
+     */
+    public boolean mightExist(String username) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(username);
+    }
+
+    /**
+     * Records a user that has just been committed to the database.
+     */
+    public void add(String username) {
+        addAll(List.of(username));
+    }
+
+    /**
+     * Records a batch of committed users with a single append to the shared log.
+     */
+    public void addAll(Collection<String> usernames) {
+        if (!enabled || usernames.isEmpty()) {
+            return;
+        }
+        usernames.forEach(this::addLocally);
+        long now = clock.millis();
+        try {
+            sharedTokenStore.addToLog(LOG_KEY, usernames, now, now - logRetention.toMillis());
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish new usernames to the other instances: {}", e.getMessage());
+        }
+    }
+
+    private void addLocally(String username) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(username);
+        }
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(username);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${knownUsernames.rebuildInterval:PT1H}", initialDelayString = "${knownUsernames.rebuildInterval:PT1H}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        if (lastPolled == 0) {
+            lastPolled = clock.millis();
+        }
+        try {
+            long users = transactionTemplate.execute(status -> jdbcTemplate.queryForObject(COUNT_SQL, Long.class));
+            BloomFilter next = new BloomFilter(Math.max(expectedUsers, users * 2), falsePositiveRate);
+            // Users committed from here on are added to both filters, everything older is read by the query below.
+            building = next;
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(LOAD_SQL);
+                statement.setFetchSize(FETCH_SIZE);
+                return statement;
+            }, (RowCallbackHandler) rs -> next.put(rs.getString(1))));
+            filter = next;
+            log.info("Loaded {} usernames into the known username filter in {} ms", users,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        } catch (RuntimeException e) {
+            log.warn("Failed to load known usernames, lookups keep going to the database: {}", e.getMessage());
+        } finally {
+            building = null;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${knownUsernames.pollInterval:PT1S}")
+    public void poll() {
+        if (!enabled || filter == null) {
+            return;
+        }
+        long now = clock.millis();
+        try {
+            for (String username : sharedTokenStore.readLog(LOG_KEY, lastPolled - CLOCK_SKEW_MILLIS)) {
+                addLocally(username);
+            }
+            lastPolled = now;
+        } catch (RuntimeException e) {
+            log.warn("Failed to read new usernames of the other instances: {}", e.getMessage());
+        }
+    }
+}
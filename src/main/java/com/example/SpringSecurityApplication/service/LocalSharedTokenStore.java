@@ -0,0 +1,80 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-process {@link SharedTokenStore} for single-instance deployments and tests.
+ */
+public class LocalSharedTokenStore implements SharedTokenStore {
+
+    private final Cache<String, Entry> entries;
+    private final Map<String, Map<String, Long>> logs = new ConcurrentHashMap<>();
+
+    public LocalSharedTokenStore(long maxSize) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public String get(String key) {
+        Entry entry = entries.getIfPresent(key);
+        return entry != null ? entry.value() : null;
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        return entries.getAllPresent(keys).entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().value()));
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+        entries.put(key, new Entry(value, ttl.toNanos()));
+    }
+
+    @Override
+    public void addToLog(String log, Collection<String> members, long score, long dropBelow) {
+        Map<String, Long> scores = logs.computeIfAbsent(log, k -> new ConcurrentHashMap<>());
+        for (String member : members) {
+            scores.put(member, score);
+        }
+        scores.values().removeIf(memberScore -> memberScore < dropBelow);
+    }
+
+    @Override
+    public List<String> readLog(String log, long minScore) {
+        return logs.getOrDefault(log, Map.of()).entrySet().stream()
+                .filter(member -> member.getValue() > minScore)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private record Entry(String value, long ttlNanos) {
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throttles login attempts per client IP and per username before any user lookup or password hash happens.
+ * <p>
+ * {@link Scope#IP} and {@link Scope#USERNAME} keys have a token bucket of {@code rate} attempts per second with room
+ * for {@code burst}, kept as a single {@link AtomicLong} (the generic cell rate algorithm) and updated with
+ * compare-and-set, so concurrent attempts never block each other. The username bucket is shared by every client, so
+ * guesses for one account spread over many addresses are throttled together.
+ * <p>
+ * On top of that, after {@code freeFailures} failed logins in a row every further failure locks the key out for
+ * {@code lockout}, doubling each time up to {@code maxLockout}; a successful login resets it. Failures are counted
+ * per {@link Scope#IP} and per {@link Scope#IP_USERNAME} pair (see {@link #ipUsernameKey}), never per username
+ * alone, so failed guesses from one address cannot lock the owner of the account out from another.
+ * <p>
+ * Keys live in size-bounded Caffeine caches and are forgotten after {@code idleTimeout} without attempts.
+ * When an attacker floods the map with fresh keys, the frequency-based eviction keeps the keys that keep coming
+ * back, such as a username under attack.
+ */
+@Component
+public class LoginRateLimiter implements MeterBinder {
+
+    public enum Scope {
+        IP, USERNAME, IP_USERNAME
+    }
+
+    private final boolean enabled;
+    private final Clock clock;
+    private final Rule ipRule;
+    private final Rule usernameRule;
+    private final int freeFailures;
+    private final long lockoutMillis;
+    private final long maxLockoutMillis;
+    private final Map<Scope, Cache<String, Limit>> caches = new EnumMap<>(Scope.class);
+    private final LongAdder[] rejections = new LongAdder[Scope.values().length * 2];
+
+    @Autowired
+    public LoginRateLimiter(@Value("${loginRateLimit.enabled:true}") boolean enabled,
+                            @Value("${loginRateLimit.ipRate:10}") double ipRate,
+                            @Value("${loginRateLimit.ipBurst:20}") int ipBurst,
+                            @Value("${loginRateLimit.usernameRate:0.2}") double usernameRate,
+                            @Value("${loginRateLimit.usernameBurst:5}") int usernameBurst,
+                            @Value("${loginRateLimit.freeFailures:5}") int freeFailures,
+                            @Value("${loginRateLimit.lockout:1s}") Duration lockout,
+                            @Value("${loginRateLimit.maxLockout:15m}") Duration maxLockout,
+                            @Value("${loginRateLimit.maxKeys:100000}") long maxKeys,
+                            @Value("${loginRateLimit.idleTimeout:15m}") Duration idleTimeout) {
+        this(enabled, new Rule(ipRate, ipBurst), new Rule(usernameRate, usernameBurst), freeFailures, lockout, maxLockout,
+                maxKeys, idleTimeout, Clock.systemUTC());
+    }
+
+    LoginRateLimiter(boolean enabled, Rule ipRule, Rule usernameRule, int freeFailures, Duration lockout,
+                     Duration maxLockout, long maxKeys, Duration idleTimeout, Clock clock) {
+        this.enabled = enabled;
+        this.clock = clock;
+        this.ipRule = ipRule;
+        this.usernameRule = usernameRule;
+        this.freeFailures = freeFailures;
+        this.lockoutMillis = lockout.toMillis();
+        this.maxLockoutMillis = maxLockout.toMillis();
+        for (Scope scope : Scope.values()) {
+            caches.put(scope, newCache(maxKeys, idleTimeout, clock));
+        }
+        for (int i = 0; i < rejections.length; i++) {
+            rejections[i] = new LongAdder();
+        }
+    }
+
+    private static Cache<String, Limit> newCache(long maxKeys, Duration idleTimeout, Clock clock) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout)
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @return the {@link Scope#IP_USERNAME} key for attempts on {@code username} from {@code ip}, or {@code null}
+     * without a username; without a known IP the username alone
+     */
+    public static String ipUsernameKey(String ip, String username) {
+        if (username == null || ip == null) {
+            return username;
+        }
+        return ip + ' ' + username;
+    }
+
+    /**
+     * Checks the key's lockout and takes one attempt from its bucket; {@link Scope#IP_USERNAME} keys have no bucket.
+     *
+     * @return {@code null} if the attempt may proceed, otherwise how long the caller should wait before retrying
+     */
+    public Rejection tryAcquire(Scope scope, String key) {
+        if (!enabled || key == null) {
+            return null;
+        }
+        Limit limit = caches.get(scope).get(key, k -> new Limit());
+        long now = clock.millis();
+        long lockedFor = limit.lockedUntil - now;
+        if (lockedFor > 0) {
+            return reject(scope, true, lockedFor);
+        }
+        Rule rule = rule(scope);
+        if (rule == null) {
+            return null;
+        }
+        long waitFor = limit.acquire(rule, now);
+        return waitFor > 0 ? reject(scope, false, waitFor) : null;
+    }
+
+    private Rejection reject(Scope scope, boolean locked, long retryAfterMillis) {
+        rejections[rejectionIndex(scope, locked)].increment();
+        return new Rejection(scope, locked, retryAfterMillis);
+    }
+
+    private static int rejectionIndex(Scope scope, boolean locked) {
+        return scope.ordinal() * 2 + (locked ? 1 : 0);
+    }
+
+    /**
+     * Counts a failed login against the key. Not meant for {@link Scope#USERNAME}: anyone could lock an account out
+     * for everybody else; count the failure against the {@link Scope#IP_USERNAME} pair instead.
+     */
+    public void loginFailed(Scope scope, String key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        if (scope == Scope.USERNAME) {
+            throw new IllegalArgumentException("Failed logins are not counted per username alone");
+        }
+        Limit limit = caches.get(scope).get(key, k -> new Limit());
+        int failures = limit.failures.incrementAndGet();
+        if (failures > freeFailures) {
+            int doublings = Math.min(failures - freeFailures - 1, 30);
+            long lockout = Math.min(maxLockoutMillis, lockoutMillis << doublings);
+            limit.lockedUntil = clock.millis() + lockout;
+        }
+    }
+
+    public void loginSucceeded(Scope scope, String key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        Limit limit = caches.get(scope).getIfPresent(key);
+        if (limit != null) {
+            limit.failures.set(0);
+            limit.lockedUntil = 0;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Scope scope : Scope.values()) {
+            for (boolean locked : new boolean[]{false, true}) {
+                FunctionCounter.builder("auth.login.throttled", rejections[rejectionIndex(scope, locked)], LongAdder::sum)
+                        .description("Login attempts rejected before the user lookup and password check")
+                        .tag("scope", scope.name().toLowerCase(Locale.ROOT))
+                        .tag("reason", locked ? "lockout" : "rate")
+                        .register(registry);
+            }
+        }
+        caches.forEach((scope, cache) -> new CaffeineCacheMetrics<>(cache,
+                "loginRateLimit." + scope.name().toLowerCase(Locale.ROOT), Tags.empty()).bindTo(registry));
+    }
+
+    private Rule rule(Scope scope) {
+        return switch (scope) {
+            case IP -> ipRule;
+            case USERNAME -> usernameRule;
+            case IP_USERNAME -> null;
+        };
+    }
+
+    /**
+     * @param rate  attempts per second allowed on average
+     * @param burst attempts allowed back to back after a quiet period
+     */
+    record Rule(double rate, int burst) {
+
+        long intervalMillis() {
+            return Math.max(1, Math.round(1000 / rate));
+        }
+    }
+
+    /**
+     * @param locked      {@code true} for a lockout after repeated failures, {@code false} for an empty bucket
+     * @param retryAfterMillis time until the next attempt would be let through
+     */
+    public record Rejection(Scope scope, boolean locked, long retryAfterMillis) {
+    }
+
+    private static final class Limit {
+        /**
+         * Theoretical arrival time: when the bucket will be full again. An attempt is allowed while it is less than
+         * {@code burst} intervals ahead of now.
+         */
+        final AtomicLong fullAt = new AtomicLong();
+        final AtomicInteger failures = new AtomicInteger();
+        volatile long lockedUntil;
+
+        long acquire(Rule rule, long now) {
+            long interval = rule.intervalMillis();
+            long tolerance = interval * (rule.burst() - 1);
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + interval;
+                long waitFor = next - interval - tolerance - now;
+                if (waitFor > 0) {
+                    return waitFor;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.SpringSecurityApplication.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Picks the highest BCrypt cost whose hash time on this machine stays within the target.
+ * The cost is stored in every BCrypt hash, so nodes calibrated differently still verify each other's hashes.
+ */
+@Slf4j
+public final class PasswordHashCalibrator {
+
+    static final int MIN_BCRYPT_STRENGTH = 10;
+    static final int MAX_BCRYPT_STRENGTH = 16;
+    private static final int SAMPLES = 3;
+
+    private PasswordHashCalibrator() {
+    }
+
+    public static int bcryptStrength(Duration targetHashTime) {
+        int strength = MIN_BCRYPT_STRENGTH;
+        for (int candidate = MIN_BCRYPT_STRENGTH; candidate <= MAX_BCRYPT_STRENGTH; candidate++) {
+            Duration hashTime = measure(new BCryptPasswordEncoder(candidate));
+            log.info("BCrypt strength {} takes {} ms", candidate, hashTime.toMillis());
+            if (hashTime.compareTo(targetHashTime) > 0) {
+                break;
+            }
+            strength = candidate;
+        }
+        return strength;
+    }
+
+    private static Duration measure(BCryptPasswordEncoder encoder) {
+        encoder.encode("calibration");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return Duration.ofNanos(best);
+    }
+}
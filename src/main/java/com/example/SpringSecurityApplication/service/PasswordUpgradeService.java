@@ -0,0 +1,62 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.example.SpringSecurityApplication.repository.UserInfoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-encodes passwords whose stored hash uses an outdated algorithm or cost, off the login request path.
+ * Upgrades are best effort: when the queue is full the user is simply upgraded on a later login.
+ */
+@Slf4j
+@Service
+public class PasswordUpgradeService implements DisposableBean {
+
+    private final UserInfoRepository repository;
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1000),
+            Thread.ofPlatform().name("password-rehash-", 0).daemon(true).factory());
+
+    public PasswordUpgradeService(UserInfoRepository repository, PasswordEncoder encoder) {
+        this.repository = repository;
+        this.encoder = encoder;
+    }
+
+    public boolean needsUpgrade(String encodedPassword) {
+        return encodedPassword != null && encoder.upgradeEncoding(encodedPassword);
+    }
+
+    public void upgradeAsync(String username, String rawPassword, String currentEncodedPassword) {
+        try {
+            executor.execute(() -> upgrade(username, rawPassword, currentEncodedPassword));
+        } catch (RejectedExecutionException e) {
+            log.debug("Password upgrade queue is full, skipping {}", username);
+        }
+    }
+
+    void upgrade(String username, String rawPassword, String currentEncodedPassword) {
+        try {
+            repository.findByUsername(username)
+                    .filter(user -> user.getPassword().equals(currentEncodedPassword))
+                    .ifPresent(user -> {
+                        user.rehashPassword(encoder.encode(rawPassword));
+                        repository.save(user);
+                    });
+        } catch (RuntimeException e) {
+            log.warn("Failed to upgrade password hash for {}: {}", username, e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.example.SpringSecurityApplication.exception.TokenRefreshException;
+import com.example.SpringSecurityApplication.model.RefreshTokenRecord;
+import com.example.SpringSecurityApplication.repository.ReactiveRefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@Profile("reactive")
+public class ReactiveRefreshTokenService {
+
+    private final ReactiveRefreshTokenRepository refreshTokenRepository;
+    private final RotatedRefreshTokens rotatedTokens;
+    private final Duration refreshTokenExpiration;
+
+    public ReactiveRefreshTokenService(ReactiveRefreshTokenRepository refreshTokenRepository,
+                                       RotatedRefreshTokens rotatedTokens,
+                                       @Value("${jwt.refreshTokenExpiration}") Duration refreshTokenExpiration) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.rotatedTokens = rotatedTokens;
+        this.refreshTokenExpiration = refreshTokenExpiration;
+    }
+
+    public Mono<RefreshTokenRecord> createRefreshToken(Long userId) {
+        return issue(userId, UUID.randomUUID());
+    }
+
+    public Mono<RefreshTokenRecord> findByToken(String token) {
+        return refreshTokenRepository.findByTokenHash(TokenDigest.sha256Hex(token))
+                .doOnNext(refreshToken -> refreshToken.setToken(token));
+    }
+
+    /**
+     * Reactive counterpart of {@link RefreshTokenService#rotate(String)}. The rotated-token lookups may go to a
+     * remote {@link SharedTokenStore}, so they run on the bounded elastic scheduler.
+     */
+    public Mono<RefreshTokenRecord> rotate(String token) {
+        String tokenHash = TokenDigest.sha256Hex(token);
+        return findByToken(token)
+                .switchIfEmpty(Mono.fromCallable(() -> Optional.ofNullable(rotatedTokens.familyOf(tokenHash)))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .flatMap(familyId -> familyId.isPresent()
+                                ? revokeFamily(familyId.get())
+                                : Mono.error(new TokenRefreshException("Refresh Token is not in DB..!!"))))
+                .flatMap(this::verifyExpiration)
+                .flatMap(current -> refreshTokenRepository.consumeById(current.getId())
+                        .flatMap(deleted -> {
+                            if (deleted == 0) {
+                                return revokeFamily(current.getFamilyId());
+                            }
+                            return Mono.fromRunnable(() -> rotatedTokens.markRotated(tokenHash, current.getFamilyId()))
+                                    .subscribeOn(Schedulers.boundedElastic())
+                                    .then(issue(current.getUserId(), current.getFamilyId()));
+                        }));
+    }
+
+    public Mono<RefreshTokenRecord> verifyExpiration(RefreshTokenRecord token) {
+        if (token.getExpiryDate().compareTo(Instant.now()) < 0) {
+            return refreshTokenRepository.delete(token)
+                    .then(Mono.error(new TokenRefreshException("Refresh token is expired. Please make a new login..!")));
+        }
+        return Mono.just(token);
+    }
+
+    private Mono<RefreshTokenRecord> issue(Long userId, UUID familyId) {
+        String token = UUID.randomUUID().toString();
+        return refreshTokenRepository.save(RefreshTokenRecord.builder()
+                .userId(userId)
+                .token(token)
+                .tokenHash(TokenDigest.sha256Hex(token))
+                .familyId(familyId)
+                .expiryDate(Instant.now().plusMillis(refreshTokenExpiration.toMillis()))
+                .build());
+    }
+
+    private Mono<RefreshTokenRecord> revokeFamily(UUID familyId) {
+        return refreshTokenRepository.deleteByFamilyId(familyId)
+                .doOnNext(revoked -> log.warn("Refresh token reuse detected, revoked {} tokens of family {}", revoked, familyId))
+                .then(Mono.error(new TokenRefreshException("Refresh token has already been used. Please make a new login..!")));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.example.SpringSecurityApplication.model.UserInfo;
+import com.example.SpringSecurityApplication.model.UserRecord;
+import com.example.SpringSecurityApplication.repository.ReactiveUserInfoRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+@Service
+@Profile("reactive")
+public class ReactiveUserInfoService implements ReactiveUserDetailsService {
+
+    private final ReactiveUserInfoRepository repository;
+    private final R2dbcEntityTemplate template;
+    private final PasswordEncoder encoder;
+
+    public ReactiveUserInfoService(ReactiveUserInfoRepository repository, R2dbcEntityTemplate template, PasswordEncoder encoder) {
+        this.repository = repository;
+        this.template = template;
+        this.encoder = encoder;
+    }
+
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        return repository.findByUsername(username)
+                .map(user -> new UserInfoDetails(user.toUserInfo()));
+    }
+
+    public Mono<UserRecord> findUserByUsername(String username) {
+        return repository.findByUsername(username);
+    }
+
+    public Mono<UserRecord> findUserById(Long id) {
+        return repository.findById(id);
+    }
+
+    public Mono<String> addUser(UserInfo userInfo) {
+        // The id comes from the same sequence Hibernate uses, so template.insert() is needed instead of save().
+        return Mono.fromCallable(() -> encoder.encode(userInfo.getPassword()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .zipWith(repository.nextId())
+                .flatMap(encodedAndId -> template.insert(UserRecord.builder()
+                        .id(encodedAndId.getT2())
+                        .username(userInfo.getUsername())
+                        .password(encodedAndId.getT1())
+                        .email(userInfo.getEmail())
+                        .roles(userInfo.getRoles())
+                        .build()))
+                .thenReturn("User Added Successfully");
+    }
+}
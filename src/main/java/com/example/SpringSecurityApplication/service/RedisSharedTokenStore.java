@@ -0,0 +1,73 @@
+package com.example.SpringSecurityApplication.service;
+
+import org.springframework.data.redis.connection.DefaultStringTuple;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.StringRedisConnection.StringTuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * {@link SharedTokenStore} on any server speaking the Redis protocol. Multi-key reads and log appends with
+ * trimming are pipelined, so each call costs a single round trip. Logs are sorted sets.
+ */
+public class RedisSharedTokenStore implements SharedTokenStore {
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisSharedTokenStore(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public String get(String key) {
+        return redisTemplate.opsForValue().get(key);
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        List<String> orderedKeys = new ArrayList<>(keys);
+        List<Object> values = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            orderedKeys.forEach(stringConnection::get);
+            return null;
+        });
+        Map<String, String> result = new HashMap<>();
+        for (int i = 0; i < orderedKeys.size(); i++) {
+            if (values.get(i) != null) {
+                result.put(orderedKeys.get(i), (String) values.get(i));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+        redisTemplate.opsForValue().set(key, value, ttl);
+    }
+
+    @Override
+    public void addToLog(String log, Collection<String> members, long score, long dropBelow) {
+        if (members.isEmpty()) {
+            return;
+        }
+        Set<StringTuple> tuples = new LinkedHashSet<>();
+        for (String member : members) {
+            tuples.add(new DefaultStringTuple(member, score));
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.zAdd(log, tuples);
+            stringConnection.zRemRangeByScore(log, Double.NEGATIVE_INFINITY, dropBelow - 1);
+            return null;
+        });
+    }
+
+    @Override
+    public List<String> readLog(String log, long minScore) {
+        Set<String> members = redisTemplate.opsForZSet().rangeByScore(log, minScore + 1, Double.POSITIVE_INFINITY);
+        return members != null ? List.copyOf(members) : List.of();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.example.SpringSecurityApplication.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically deletes expired refresh tokens in small batches ordered by expiry date, throttled to
+ * {@code refreshTokenPurge.maxRowsPerSecond}. Safe to run on every node at once.
+ */
+@Slf4j
+@Component
+public class RefreshTokenPurgeJob {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long minNanosPerBatch;
+    private final Counter purgedCounter;
+    private final Timer purgeTimer;
+
+    public RefreshTokenPurgeJob(RefreshTokenRepository refreshTokenRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${refreshTokenPurge.enabled:true}") boolean enabled,
+                                @Value("${refreshTokenPurge.batchSize:1000}") int batchSize,
+                                @Value("${refreshTokenPurge.maxBatchesPerRun:100}") int maxBatchesPerRun,
+                                @Value("${refreshTokenPurge.maxRowsPerSecond:10000}") int maxRowsPerSecond) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.minNanosPerBatch = TimeUnit.SECONDS.toNanos(1) * batchSize / Math.max(1, maxRowsPerSecond);
+        this.purgedCounter = Counter.builder("refresh_token.purge.rows").register(meterRegistry);
+        this.purgeTimer = Timer.builder("refresh_token.purge.duration").register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${refreshTokenPurge.initialDelay:PT1M}", fixedDelayString = "${refreshTokenPurge.interval:PT5M}")
+    public void purgeExpiredTokens() {
+        if (enabled) {
+            purge(Instant.now());
+        }
+    }
+
+    int purge(Instant now) {
+        long start = System.nanoTime();
+        int purged = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            long batchStart = System.nanoTime();
+            int deleted = refreshTokenRepository.deleteExpiredBatch(now, batchSize);
+            purged += deleted;
+            purgedCounter.increment(deleted);
+            if (deleted < batchSize || !throttle(batchStart)) {
+                break;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        purgeTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens in {} ms", purged, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+        return purged;
+    }
+
+    private boolean throttle(long batchStart) {
+        long remaining = minNanosPerBatch - (System.nanoTime() - batchStart);
+        if (remaining > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+}
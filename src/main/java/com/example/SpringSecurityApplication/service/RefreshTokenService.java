@@ -1,48 +1,143 @@
 package com.example.SpringSecurityApplication.service;
 
+import com.example.SpringSecurityApplication.exception.TokenRefreshException;
 import com.example.SpringSecurityApplication.model.RefreshToken;
-import com.example.SpringSecurityApplication.repository.RefreshTokenRepository;
+import com.example.SpringSecurityApplication.model.UserInfo;
 import com.example.SpringSecurityApplication.repository.UserInfoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+@Slf4j
 @Service
 public class RefreshTokenService {
 
     @Autowired
-    private RefreshTokenRepository refreshTokenRepository;
+    private RefreshTokenStore refreshTokenStore;
 
     @Autowired
     private UserInfoRepository userRepository;
 
+    @Autowired
+    private RotatedRefreshTokens rotatedTokens;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
     @Value("${jwt.refreshTokenExpiration}")
     private Duration refreshTokenExpiration;
 
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Starts a new token family; every login gets its own, so sessions on different devices are independent.
+     */
+    @Transactional
     public RefreshToken createRefreshToken(String username){
-        RefreshToken refreshToken = RefreshToken.builder()
-                .userInfo(userRepository.findByUsername(username).get())
-                .token(UUID.randomUUID().toString())
-                .expiryDate(Instant.now().plusMillis(refreshTokenExpiration.toMillis()))
-                .build();
-        return refreshTokenRepository.save(refreshToken);
+        return timed("create", () -> issue(userRepository.findByUsername(username).get(), UUID.randomUUID()));
+    }
+
+    /**
+     * Same as {@link #createRefreshToken(String)} for a user that has just been authenticated: the token row only
+     * needs the user's id, which the principal already carries, so the store saves it with a reference to the user
+     * instead of loading the user again.
+     */
+    @Transactional
+    public RefreshToken createRefreshToken(UserInfoDetails user) {
+        if (user.getId() == null) {
+            return createRefreshToken(user.getUsername());
+        }
+        return timed("create", () -> issue(refreshTokenStore.userReference(user), UUID.randomUUID()));
     }
 
     public Optional<RefreshToken> findByToken(String token){
-        return refreshTokenRepository.findByToken(token);
+        return timed("lookup", () -> refreshTokenStore.findByTokenHash(TokenDigest.sha256Hex(token)))
+                .map(refreshToken -> {
+                    refreshToken.setToken(token);
+                    return refreshToken;
+                });
+    }
+
+    /**
+     * Exchanges a refresh token for a new one in the same family. Presenting a token that has already
+     * been rotated revokes the whole family, since either the client or an attacker holds a stolen copy.
+     */
+    @Transactional(noRollbackFor = TokenRefreshException.class)
+    public RefreshToken rotate(String token) {
+        return timed("rotate", () -> rotateInternal(token));
+    }
+
+    private RefreshToken rotateInternal(String token) {
+        String tokenHash = TokenDigest.sha256Hex(token);
+        RefreshToken current = findByToken(token)
+                .orElseGet(() -> {
+                    UUID familyId = rotatedTokens.familyOf(tokenHash);
+                    if (familyId != null) {
+                        throw revokeFamily(familyId);
+                    }
+                    throw new TokenRefreshException("Refresh Token is not in DB..!!");
+                });
+        verifyExpiration(current);
+        if (!refreshTokenStore.consume(current)) {
+            throw revokeFamily(current.getFamilyId());
+        }
+        rotatedTokens.markRotated(tokenHash, current.getFamilyId());
+        return issue(current.getUserInfo(), current.getFamilyId());
     }
 
     public RefreshToken verifyExpiration(RefreshToken token){
         if(token.getExpiryDate().compareTo(Instant.now())<0){
-            refreshTokenRepository.delete(token);
-            throw new RuntimeException(token.getToken() + " Refresh token is expired. Please make a new login..!");
+            timed("expire", () -> {
+                refreshTokenStore.delete(token);
+                return null;
+            });
+            throw new TokenRefreshException("Refresh token is expired. Please make a new login..!");
         }
         return token;
     }
 
-}
\ No newline at end of file
+    private RefreshToken issue(UserInfo userInfo, UUID familyId) {
+        String token = UUID.randomUUID().toString();
+        RefreshToken refreshToken = RefreshToken.builder()
+                .userInfo(userInfo)
+                .token(token)
+                .tokenHash(TokenDigest.sha256Hex(token))
+                .familyId(familyId)
+                .expiryDate(Instant.now().plusMillis(refreshTokenExpiration.toMillis()))
+                .build();
+        return refreshTokenStore.save(refreshToken);
+    }
+
+    private <T> T timed(String operation, Supplier<T> action) {
+        Timer timer = timers.computeIfAbsent(operation, name -> Timer.builder("refresh_token.operation")
+                .tag("operation", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private TokenRefreshException revokeFamily(UUID familyId) {
+        int revoked = refreshTokenStore.deleteFamily(familyId);
+        log.warn("Refresh token reuse detected, revoked {} tokens of family {}", revoked, familyId);
+        return new TokenRefreshException("Refresh token has already been used. Please make a new login..!");
+    }
+}
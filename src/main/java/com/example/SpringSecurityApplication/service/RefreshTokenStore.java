@@ -0,0 +1,34 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.example.SpringSecurityApplication.model.RefreshToken;
+import com.example.SpringSecurityApplication.model.UserInfo;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Persistence of refresh tokens for {@link RefreshTokenService}, selected with {@code refreshToken.store}:
+ * {@code jpa} (default) or {@code memory}.
+ */
+public interface RefreshTokenStore {
+
+    /**
+     * @return the user a new token of an already authenticated user is saved with, without loading the user
+     */
+    UserInfo userReference(UserInfoDetails user);
+
+    RefreshToken save(RefreshToken refreshToken);
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Removes the token if it is still present.
+     *
+     * @return {@code false} if a concurrent caller already removed it
+     */
+    boolean consume(RefreshToken refreshToken);
+
+    void delete(RefreshToken refreshToken);
+
+    int deleteFamily(UUID familyId);
+}
@@ -0,0 +1,107 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.example.SpringSecurityApplication.exception.LoginRateLimitedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DaoAuthenticationProvider} that hands outdated password hashes to {@link PasswordUpgradeService}
+ * instead of re-encoding them inline on the request thread.
+ * <p>
+ * Attempts for a username that {@link LoginRateLimiter} throttles fail with {@link LoginRateLimitedException} before
+ * the user is looked up or a password is hashed: first the lockout of the client IP and username pair, then the
+ * bucket of the username shared by all clients. Failed and successful logins are reported back for the pair; the IP
+ * is taken from the current request.
+ * <p>
+ * Times the whole authentication ({@code auth.provider}, by outcome) and the user lookup on its own
+ * ({@code auth.provider.user_lookup}); the password check is timed by {@link BoundedPasswordEncoder}.
+ */
+public class RehashingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final PasswordUpgradeService passwordUpgradeService;
+    private final LoginRateLimiter loginRateLimiter;
+    private final Timer successTimer;
+    private final Timer failureTimer;
+    private final Timer userLookupTimer;
+
+    public RehashingAuthenticationProvider(PasswordUpgradeService passwordUpgradeService, LoginRateLimiter loginRateLimiter,
+                                           MeterRegistry meterRegistry) {
+        this.passwordUpgradeService = passwordUpgradeService;
+        this.loginRateLimiter = loginRateLimiter;
+        this.successTimer = providerTimer("success", meterRegistry);
+        this.failureTimer = providerTimer("failure", meterRegistry);
+        this.userLookupTimer = Timer.builder("auth.provider.user_lookup")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Timer providerTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("auth.provider")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        String key = LoginRateLimiter.ipUsernameKey(clientIp(), username);
+        LoginRateLimiter.Rejection rejection = loginRateLimiter.tryAcquire(LoginRateLimiter.Scope.IP_USERNAME, key);
+        if (rejection == null) {
+            rejection = loginRateLimiter.tryAcquire(LoginRateLimiter.Scope.USERNAME, username);
+        }
+        if (rejection != null) {
+            throw new LoginRateLimitedException(Duration.ofMillis(rejection.retryAfterMillis()));
+        }
+        long start = System.nanoTime();
+        Timer timer = failureTimer;
+        try {
+            Authentication result = super.authenticate(authentication);
+            timer = successTimer;
+            loginRateLimiter.loginSucceeded(LoginRateLimiter.Scope.IP_USERNAME, key);
+            return result;
+        } catch (BadCredentialsException e) {
+            loginRateLimiter.loginFailed(LoginRateLimiter.Scope.IP_USERNAME, key);
+            throw e;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String clientIp() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest().getRemoteAddr()
+                : null;
+    }
+
+    @Override
+    public void setUserDetailsService(UserDetailsService userDetailsService) {
+        super.setUserDetailsService(username -> {
+            long start = System.nanoTime();
+            try {
+                return userDetailsService.loadUserByUsername(username);
+            } finally {
+                userLookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication, UserDetails user) {
+        if (authentication.getCredentials() != null && passwordUpgradeService.needsUpgrade(user.getPassword())) {
+            passwordUpgradeService.upgradeAsync(user.getUsername(), authentication.getCredentials().toString(), user.getPassword());
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+}
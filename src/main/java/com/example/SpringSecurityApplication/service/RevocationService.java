@@ -0,0 +1,87 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Revokes all access tokens of a user issued up to now, or all tokens carrying a {@code ver} claim older than the
+ * user's current token version. Both cut-offs are published through the {@link SharedTokenStore} and cached locally
+ * for at most {@code revocation.maxStaleness}, which bounds how long another instance may still accept a revoked
+ * token while keeping the shared store off most requests.
+ * <p>
+ * {@code iat} only has second precision, so a token issued in the same second as the revocation is revoked too.
+ * A token without a {@code ver} claim counts as version 0.
+ */
+@Service
+public class RevocationService {
+
+    private static final String KEY_PREFIX = "revoked-before:";
+    private static final String MIN_VERSION_KEY_PREFIX = "min-version:";
+
+    private final SharedTokenStore sharedTokenStore;
+    private final Duration tokenExpiration;
+    private final Clock clock;
+    private final Cache<String, Revocation> revocations;
+
+    @Autowired
+    public RevocationService(SharedTokenStore sharedTokenStore,
+                             @Value("${jwt.tokenExpiration}") Duration tokenExpiration,
+                             @Value("${revocation.maxStaleness:1s}") Duration maxStaleness,
+                             @Value("${revocation.localCacheSize:100000}") long localCacheSize) {
+        this(sharedTokenStore, tokenExpiration, maxStaleness, localCacheSize, Clock.systemUTC());
+    }
+
+    RevocationService(SharedTokenStore sharedTokenStore, Duration tokenExpiration, Duration maxStaleness,
+                      long localCacheSize, Clock clock) {
+        this.sharedTokenStore = sharedTokenStore;
+        this.tokenExpiration = tokenExpiration;
+        this.clock = clock;
+        this.revocations = Caffeine.newBuilder()
+                .expireAfterWrite(maxStaleness)
+                .maximumSize(localCacheSize)
+                .build();
+    }
+
+    public void revokeUser(String username) {
+        long now = clock.millis();
+        sharedTokenStore.put(KEY_PREFIX + username, Long.toString(now), tokenExpiration);
+        revocations.invalidate(username);
+    }
+
+    /**
+     * Revokes the tokens of the user issued with a token version below {@code version}.
+     */
+    public void revokeVersionsBelow(String username, long version) {
+        sharedTokenStore.put(MIN_VERSION_KEY_PREFIX + username, Long.toString(version), tokenExpiration);
+        revocations.invalidate(username);
+    }
+
+    public boolean isRevoked(VerifiedClaims claims) {
+        Revocation revocation = revocations.get(claims.username(), this::load);
+        long version = claims.version() != null ? claims.version() : 0L;
+        return (claims.issuedAt() != null && claims.issuedAt().getTime() <= revocation.issuedBefore())
+                || version < revocation.minVersion();
+    }
+
+    private Revocation load(String username) {
+        String issuedBeforeKey = KEY_PREFIX + username;
+        String minVersionKey = MIN_VERSION_KEY_PREFIX + username;
+        Map<String, String> stored = sharedTokenStore.getAll(List.of(issuedBeforeKey, minVersionKey));
+        return new Revocation(parse(stored.get(issuedBeforeKey)), parse(stored.get(minVersionKey)));
+    }
+
+    private static long parse(String stored) {
+        return stored != null ? Long.parseLong(stored) : 0L;
+    }
+
+    private record Revocation(long issuedBefore, long minVersion) {
+    }
+}
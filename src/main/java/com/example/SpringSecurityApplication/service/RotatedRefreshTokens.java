@@ -0,0 +1,44 @@
+package com.example.SpringSecurityApplication.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Remembers which family each recently rotated refresh token belonged to, so presenting it again
+ * can be recognised as reuse without a database round trip. Entries live in the {@link SharedTokenStore},
+ * so a token rotated on one instance is recognised on every other one, and expire when the refresh
+ * token itself would have. Keys are the first 128 bits of the token digest.
+ */
+@Component
+public class RotatedRefreshTokens {
+
+    private static final String KEY_PREFIX = "rt:rotated:";
+
+    private final SharedTokenStore sharedTokenStore;
+    private final Duration refreshTokenExpiration;
+
+    public RotatedRefreshTokens(SharedTokenStore sharedTokenStore,
+                                @Value("${jwt.refreshTokenExpiration}") Duration refreshTokenExpiration) {
+        this.sharedTokenStore = sharedTokenStore;
+        this.refreshTokenExpiration = refreshTokenExpiration;
+    }
+
+    public void markRotated(String tokenHash, UUID familyId) {
+        sharedTokenStore.put(key(tokenHash), familyId.toString(), refreshTokenExpiration);
+    }
+
+    /**
+     * @return the family of a token rotated within its lifetime, or {@code null} if it is unknown
+     */
+    public UUID familyOf(String tokenHash) {
+        String familyId = sharedTokenStore.get(key(tokenHash));
+        return familyId != null ? UUID.fromString(familyId) : null;
+    }
+
+    private static String key(String tokenHash) {
+        return KEY_PREFIX + tokenHash.substring(0, 32);
+    }
+}
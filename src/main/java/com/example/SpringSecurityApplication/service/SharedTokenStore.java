@@ -0,0 +1,45 @@
+package com.example.SpringSecurityApplication.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Small key-value SPI for state every instance must agree on: rotated refresh tokens, revocations and
+ * logs of recent changes.
+ * Selected with {@code sharedStore.type}: {@code local} (default, single instance) or {@code redis}.
+ * Every entry carries a TTL, so nothing has to be cleaned up explicitly.
+ */
+public interface SharedTokenStore {
+
+    /**
+     * @return the value, or {@code null} if absent or expired
+     */
+    String get(String key);
+
+    /**
+     * Reads several keys in one round trip; absent keys are left out of the result.
+     */
+    Map<String, String> getAll(Collection<String> keys);
+
+    void put(String key, String value, Duration ttl);
+
+    /**
+     * Adds a member to a scored log and, in the same round trip, drops members scored below {@code dropBelow}.
+     */
+    default void addToLog(String log, String member, long score, long dropBelow) {
+        addToLog(log, List.of(member), score, dropBelow);
+    }
+
+    /**
+     * Adds several members with the same score to a scored log in one round trip, trimming it once like
+     * {@link #addToLog(String, String, long, long)}.
+     */
+    void addToLog(String log, Collection<String> members, long score, long dropBelow);
+
+    /**
+     * @return members of the log scored above {@code minScore}
+     */
+    List<String> readLog(String log, long minScore);
+}
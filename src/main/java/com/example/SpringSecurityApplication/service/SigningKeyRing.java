@@ -0,0 +1,181 @@
+package com.example.SpringSecurityApplication.service;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.*;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * ES256 (P-256) keys of the access tokens: one active signing key and every public key still accepted,
+ * indexed by {@code kid}. Rotation overlaps: a new key is published before it becomes active and an old one is
+ * kept until the tokens it signed have expired. The JWKS document and its ETag are rendered once per ring.
+ * <p>
+ * A key directory holds {@code <kid>.pub.pem} (X.509) for every key, {@code <kid>.key.pem} (PKCS#8) for the
+ * active one and a file named {@code active} with the active kid.
+ */
+public final class SigningKeyRing {
+
+    private static final Pattern KID = Pattern.compile("[A-Za-z0-9._-]+");
+    private static final String PUBLIC_SUFFIX = ".pub.pem";
+
+    private final String activeKid;
+    private final PrivateKey signingKey;
+    private final Map<String, PublicKey> verificationKeys;
+    private final String jwksJson;
+    private final String etag;
+
+    private SigningKeyRing(String activeKid, PrivateKey signingKey, Map<String, PublicKey> verificationKeys) {
+        if (!verificationKeys.containsKey(activeKid)) {
+            throw new IllegalArgumentException("No public key for the active kid " + activeKid);
+        }
+        this.activeKid = activeKid;
+        this.signingKey = signingKey;
+        this.verificationKeys = Map.copyOf(verificationKeys);
+        this.jwksJson = renderJwks(new TreeMap<>(verificationKeys));
+        this.etag = "\"" + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sha256(jwksJson.getBytes(StandardCharsets.UTF_8))) + "\"";
+    }
+
+    public static SigningKeyRing of(String activeKid, PrivateKey signingKey, Map<String, PublicKey> verificationKeys) {
+        verificationKeys.keySet().forEach(SigningKeyRing::checkKid);
+        return new SigningKeyRing(activeKid, signingKey, verificationKeys);
+    }
+
+    public static SigningKeyRing load(Path directory) throws IOException {
+        String activeKid = Files.readString(directory.resolve("active")).trim();
+        Map<String, PublicKey> verificationKeys = new HashMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(PUBLIC_SUFFIX)).toList()) {
+                String name = file.getFileName().toString();
+                String kid = name.substring(0, name.length() - PUBLIC_SUFFIX.length());
+                verificationKeys.put(kid, publicKey(readPem(file)));
+            }
+        }
+        PrivateKey signingKey = privateKey(readPem(directory.resolve(activeKid + ".key.pem")));
+        return of(activeKid, signingKey, verificationKeys);
+    }
+
+    /**
+     * A single throwaway key, for running without a key directory. Tokens do not survive a restart
+     * and every instance signs with its own key.
+     */
+    public static SigningKeyRing generate() {
+        KeyPair keyPair = generateKeyPair();
+        String kid = keyId(keyPair.getPublic());
+        return new SigningKeyRing(kid, keyPair.getPrivate(), Map.of(kid, keyPair.getPublic()));
+    }
+
+    public static KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("P-256 is not available", e);
+        }
+    }
+
+    /**
+     * Derives a kid from the key itself, so the same key always gets the same id.
+     */
+    public static String keyId(PublicKey publicKey) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sha256(publicKey.getEncoded())).substring(0, 16);
+    }
+
+    public String activeKid() {
+        return activeKid;
+    }
+
+    public PrivateKey signingKey() {
+        return signingKey;
+    }
+
+    /**
+     * @return the public key for {@code kid}, or {@code null} if it is unknown or retired
+     */
+    public PublicKey verificationKey(String kid) {
+        return kid != null ? verificationKeys.get(kid) : null;
+    }
+
+    /**
+     * @return whether {@code other} has the same active kid and signing key and accepts exactly the same keys
+     */
+    public boolean hasSameKeys(SigningKeyRing other) {
+        return activeKid.equals(other.activeKid)
+                && signingKey.equals(other.signingKey)
+                && verificationKeys.equals(other.verificationKeys);
+    }
+
+    public String jwksJson() {
+        return jwksJson;
+    }
+
+    public String etag() {
+        return etag;
+    }
+
+    private static String renderJwks(SortedMap<String, PublicKey> keys) {
+        StringJoiner joiner = new StringJoiner(",", "{\"keys\":[", "]}");
+        keys.forEach((kid, key) -> {
+            ECPublicKey ecKey = (ECPublicKey) key;
+            joiner.add("{\"kty\":\"EC\",\"crv\":\"P-256\",\"use\":\"sig\",\"alg\":\"ES256\",\"kid\":\"" + kid
+                    + "\",\"x\":\"" + coordinate(ecKey.getW().getAffineX())
+                    + "\",\"y\":\"" + coordinate(ecKey.getW().getAffineY()) + "\"}");
+        });
+        return joiner.toString();
+    }
+
+    private static String coordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] padded = new byte[32];
+        int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, padded, 32 - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(padded);
+    }
+
+    private static byte[] readPem(Path file) throws IOException {
+        String base64 = Files.readAllLines(file).stream()
+                .filter(line -> !line.startsWith("-----"))
+                .reduce("", String::concat);
+        return Base64.getMimeDecoder().decode(base64);
+    }
+
+    private static PublicKey publicKey(byte[] encoded) {
+        try {
+            return KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(encoded));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Not an EC public key", e);
+        }
+    }
+
+    private static PrivateKey privateKey(byte[] encoded) {
+        try {
+            return KeyFactory.getInstance("EC").generatePrivate(new PKCS8EncodedKeySpec(encoded));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Not an EC private key", e);
+        }
+    }
+
+    private static void checkKid(String kid) {
+        if (!KID.matcher(kid).matches()) {
+            throw new IllegalArgumentException("Invalid kid " + kid);
+        }
+    }
+
+    private static byte[] sha256(byte[] input) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(input);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Size- and TTL-bounded cache in front of the user lookup. Concurrent misses for the same
+ * username are coalesced into a single load; unknown users are never cached.
+ * <p>
+ * The load runs on the calling thread but outside the cache's internal map lock, and waiters
+ * park on a future, so a virtual thread doing the JDBC lookup never pins its carrier.
+ */
+@Component
+public class UserDetailsCache implements MeterBinder {
+
+    private final boolean enabled;
+    private final AsyncCache<String, UserDetails> cache;
+
+    public UserDetailsCache(@Value("${userCache.enabled:true}") boolean enabled,
+                            @Value("${userCache.maxSize:10000}") long maxSize,
+                            @Value("${userCache.ttl:5m}") Duration ttl) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+    }
+
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        if (!enabled) {
+            return loader.apply(username);
+        }
+        CompletableFuture<UserDetails> load = new CompletableFuture<>();
+        CompletableFuture<UserDetails> future = cache.get(username, (key, executor) -> load);
+        if (future == load) {
+            try {
+                load.complete(loader.apply(username));
+            } catch (RuntimeException e) {
+                load.completeExceptionally(e);
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public void invalidate(String username) {
+        cache.synchronous().invalidate(username);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new CaffeineCacheMetrics<>(cache.synchronous(), "userDetails", Tags.empty()).bindTo(registry);
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+}
@@ -0,0 +1,368 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.example.SpringSecurityApplication.exception.UserImportException;
+import com.example.SpringSecurityApplication.model.UserInfo;
+import com.example.SpringSecurityApplication.model.dto.UserImportErrorDTO;
+import com.example.SpringSecurityApplication.model.dto.UserImportReportDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * Imports users from NDJSON (one {@link UserInfo} JSON object per line) or CSV (header
+ * {@code username,password,email,roles}, quoted fields allowed) as the input streams in.
+ * <p>
+ * Rows are processed in batches of {@code userImport.batchSize}. The passwords of a batch are hashed in parallel
+ * on a dedicated pool of {@code userImport.hashThreads}, by default half of the cores: hashing is CPU-bound, so
+ * every thread added speeds the import up at the expense of the logins running at the same time, which need the
+ * other half. Ids are taken from {@code user_id_seq} 50 at a time the
+ * way Hibernate's pooled optimizer does. Each batch is then written with one JDBC batch insert in its own
+ * transaction. A bad row (missing field, duplicate name or email, unreadable line) is reported with its line
+ * number and skipped without failing the rest of its batch.
+ * <p>
+ * Passwords that are already encoded ({@code {bcrypt}...}, {@code {pbkdf2@SpringSecurity_v5_8}...} or a bare
+ * BCrypt hash) are stored as they are, so accounts migrated from another system skip the expensive hash;
+ * {@link PasswordUpgradeService} re-encodes them on the next login if needed.
+ */
+@Slf4j
+@Service
+public class UserImportService implements DisposableBean {
+
+    static final String INSERT_SQL = "INSERT INTO users (id, name, password, email, roles, token_version) " +
+            "VALUES (?, ?, ?, ?, ?, 0) ON CONFLICT DO NOTHING";
+    static final String EXISTING_SQL = "SELECT name, email FROM users WHERE name IN (:names) OR email IN (:emails)";
+    static final String NEXT_ID_SQL = "SELECT nextval('user_id_seq')";
+    static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final List<String> CSV_COLUMNS = List.of("username", "password", "email", "roles");
+    private static final Pattern ENCODED_PASSWORD =
+            Pattern.compile("^(\\{bcrypt}|\\{pbkdf2@SpringSecurity_v5_8}|\\$2[aby]?\\$\\d\\d\\$).+");
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder encoder;
+    private final ObjectMapper objectMapper;
+    private final KnownUsernames knownUsernames;
+    private final int batchSize;
+    private final int maxReportedErrors;
+    private final ExecutorService hashExecutor;
+    private final Counter importedCounter;
+    private final Counter failedCounter;
+    private long nextId;
+    private long maxId = -1;
+
+    public UserImportService(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             PasswordEncoder encoder,
+                             ObjectMapper objectMapper,
+                             KnownUsernames knownUsernames,
+                             MeterRegistry meterRegistry,
+                             @Value("${userImport.batchSize:1000}") int batchSize,
+                             @Value("${userImport.hashThreads:0}") int hashThreads,
+                             @Value("${userImport.maxReportedErrors:1000}") int maxReportedErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // The login path hashes on the bounded pool of BoundedPasswordEncoder; an import has its own threads instead
+        // of flooding that queue.
+        this.encoder = encoder instanceof BoundedPasswordEncoder bounded ? bounded.getDelegate() : encoder;
+        this.objectMapper = objectMapper;
+        this.knownUsernames = knownUsernames;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+        int threads = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.hashExecutor = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().name("user-import-hash-", 0).daemon(true).factory());
+        this.importedCounter = Counter.builder("user.import.rows").tag("outcome", "imported").register(meterRegistry);
+        this.failedCounter = Counter.builder("user.import.rows").tag("outcome", "failed").register(meterRegistry);
+    }
+
+    public UserImportReportDTO importUsers(InputStream input, Format format) throws IOException {
+        long started = System.nanoTime();
+        Import state = new Import();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        int[] columns = format == Format.CSV ? csvColumns(reader.readLine()) : null;
+        long lineNumber = format == Format.CSV ? 1 : 0;
+        List<Row> batch = new ArrayList<>(batchSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            batch.add(format == Format.CSV ? csvRow(lineNumber, line, columns) : jsonRow(lineNumber, line));
+            if (batch.size() == batchSize) {
+                importBatch(batch, state);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            importBatch(batch, state);
+        }
+        log.info("Imported {} users, {} rows failed, in {} ms", state.imported, state.failed,
+                (System.nanoTime() - started) / 1_000_000);
+        return UserImportReportDTO.builder()
+                .imported(state.imported)
+                .failed(state.failed)
+                .errors(state.errors)
+                .build();
+    }
+
+    private void importBatch(List<Row> batch, Import state) {
+        List<Row> valid = new ArrayList<>(batch.size());
+        for (Row row : batch) {
+            if (row.error == null) {
+                validate(row, state);
+            }
+            if (row.error == null) {
+                valid.add(row);
+            }
+        }
+        rejectExisting(valid);
+        hashPasswords(valid);
+        valid.removeIf(row -> row.error != null);
+
+        if (!valid.isEmpty()) {
+            long[] ids = allocateIds(valid.size());
+            List<Object[]> args = new ArrayList<>(valid.size());
+            for (int i = 0; i < valid.size(); i++) {
+                Row row = valid.get(i);
+                args.add(new Object[]{ids[i], row.username, row.encodedPassword, row.email, row.roles});
+            }
+            int[] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_SQL, args));
+            for (int i = 0; i < valid.size(); i++) {
+                // A name or email taken by a concurrent registration after the existence check.
+                if (counts != null && counts[i] == 0) {
+                    valid.get(i).error = "duplicate name or email";
+                }
+            }
+        }
+
+        List<String> imported = new ArrayList<>(valid.size());
+        for (Row row : batch) {
+            if (row.error == null) {
+                imported.add(row.username);
+                state.imported++;
+                importedCounter.increment();
+            } else {
+                state.failed++;
+                failedCounter.increment();
+                if (state.errors.size() < maxReportedErrors) {
+                    state.errors.add(new UserImportErrorDTO(row.line, row.username, row.error));
+                }
+            }
+        }
+        knownUsernames.addAll(imported);
+    }
+
+    private static void validate(Row row, Import state) {
+        if (row.username == null || row.username.isBlank()) {
+            row.error = "missing username";
+        } else if (row.password == null || row.password.isEmpty()) {
+            row.error = "missing password";
+        } else if (row.email == null || row.email.isBlank()) {
+            row.error = "missing email";
+        } else if (row.roles == null || row.roles.isBlank()) {
+            row.error = "missing roles";
+        } else if (!state.names.add(row.username)) {
+            row.error = "duplicate name in import";
+        } else if (!state.emails.add(row.email)) {
+            row.error = "duplicate email in import";
+        }
+    }
+
+    private void rejectExisting(List<Row> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Set<String> existingNames = new HashSet<>();
+        Set<String> existingEmails = new HashSet<>();
+        Map<String, Object> params = Map.of(
+                "names", rows.stream().map(row -> row.username).toList(),
+                "emails", rows.stream().map(row -> row.email).toList());
+        namedJdbcTemplate.query(EXISTING_SQL, params, rs -> {
+            existingNames.add(rs.getString(1));
+            existingEmails.add(rs.getString(2));
+        });
+        for (Row row : rows) {
+            if (existingNames.contains(row.username)) {
+                row.error = "duplicate name";
+            } else if (existingEmails.contains(row.email)) {
+                row.error = "duplicate email";
+            }
+        }
+    }
+
+    private void hashPasswords(List<Row> rows) {
+        List<CompletableFuture<Void>> hashes = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (row.error != null) {
+                continue;
+            }
+            if (ENCODED_PASSWORD.matcher(row.password).matches()) {
+                row.encodedPassword = row.password;
+                continue;
+            }
+            hashes.add(CompletableFuture.runAsync(() -> {
+                try {
+                    row.encodedPassword = encoder.encode(row.password);
+                } catch (RuntimeException e) {
+                    row.error = "password cannot be hashed: " + e.getMessage();
+                }
+            }, hashExecutor));
+        }
+        CompletableFuture.allOf(hashes.toArray(CompletableFuture[]::new)).join();
+    }
+
+    /**
+     * Hands out ids like Hibernate's pooled optimizer: each {@code nextval} reserves the 50 ids ending at the returned
+     * value, so neither Hibernate nor the reactive profile, which uses the returned value itself, can get them.
+     */
+    synchronized long[] allocateIds(int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            if (nextId > maxId) {
+                Long hi = jdbcTemplate.queryForObject(NEXT_ID_SQL, Long.class);
+                maxId = Objects.requireNonNull(hi);
+                nextId = Math.max(1, maxId - ID_ALLOCATION_SIZE + 1);
+            }
+            ids[i] = nextId++;
+        }
+        return ids;
+    }
+
+    private Row jsonRow(long line, String json) {
+        try {
+            UserInfo user = objectMapper.readValue(json, UserInfo.class);
+            return new Row(line, user.getUsername(), user.getPassword(), user.getEmail(), user.getRoles());
+        } catch (JsonProcessingException e) {
+            Row row = new Row(line, null, null, null, null);
+            row.error = "invalid JSON: " + e.getOriginalMessage();
+            return row;
+        }
+    }
+
+    private static int[] csvColumns(String header) {
+        if (header == null) {
+            throw new UserImportException("CSV input is empty, expected a header with " + String.join(",", CSV_COLUMNS));
+        }
+        List<String> names = parseCsvLine(header);
+        int[] columns = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = names.indexOf(CSV_COLUMNS.get(i));
+            if (columns[i] < 0) {
+                throw new UserImportException("CSV header has no " + CSV_COLUMNS.get(i) + " column, expected "
+                        + String.join(",", CSV_COLUMNS));
+            }
+        }
+        return columns;
+    }
+
+    private static Row csvRow(long line, String csv, int[] columns) {
+        List<String> values;
+        try {
+            values = parseCsvLine(csv);
+        } catch (IllegalArgumentException e) {
+            Row row = new Row(line, null, null, null, null);
+            row.error = e.getMessage();
+            return row;
+        }
+        String[] fields = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            fields[i] = columns[i] < values.size() ? values.get(columns[i]) : null;
+        }
+        return new Row(line, fields[0], fields[1], fields[2], fields[3]);
+    }
+
+    /**
+     * Splits one CSV record; fields may be enclosed in double quotes, with {@code ""} for a quote inside them.
+     * Records spanning several lines are not supported.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void destroy() {
+        hashExecutor.shutdownNow();
+    }
+
+    private static final class Row {
+        final long line;
+        final String username;
+        final String password;
+        final String email;
+        final String roles;
+        volatile String encodedPassword;
+        volatile String error;
+
+        Row(long line, String username, String password, String email, String roles) {
+            this.line = line;
+            this.username = username;
+            this.password = password;
+            this.email = email;
+            this.roles = roles;
+        }
+    }
+
+    private static final class Import {
+        final Set<String> names = new HashSet<>();
+        final Set<String> emails = new HashSet<>();
+        final List<UserImportErrorDTO> errors = new ArrayList<>();
+        long imported;
+        long failed;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.example.SpringSecurityApplication.model.UserInfo;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts cached user details whenever a {@link UserInfo} row is written, after the surrounding
+ * transaction commits so a concurrent lookup cannot re-cache the old state. An update also revokes the access tokens
+ * issued before the user's current token version, and a deleted user loses all of them.
+ */
+@Component
+public class UserInfoChangeListener {
+
+    private final UserDetailsCache userDetailsCache;
+    private final RevocationService revocationService;
+
+    public UserInfoChangeListener(UserDetailsCache userDetailsCache, RevocationService revocationService) {
+        this.userDetailsCache = userDetailsCache;
+        this.revocationService = revocationService;
+    }
+
+    @PostPersist
+    public void onPersist(UserInfo userInfo) {
+        String username = userInfo.getUsername();
+        afterCommit(() -> userDetailsCache.invalidate(username));
+    }
+
+    @PostUpdate
+    public void onUpdate(UserInfo userInfo) {
+        String username = userInfo.getUsername();
+        long tokenVersion = userInfo.getTokenVersion();
+        afterCommit(() -> {
+            userDetailsCache.invalidate(username);
+            revocationService.revokeVersionsBelow(username, tokenVersion);
+        });
+    }
+
+    @PostRemove
+    public void onRemove(UserInfo userInfo) {
+        String username = userInfo.getUsername();
+        afterCommit(() -> {
+            userDetailsCache.invalidate(username);
+            revocationService.revokeUser(username);
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
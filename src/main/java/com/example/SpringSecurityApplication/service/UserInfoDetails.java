@@ -2,31 +2,42 @@ package com.example.SpringSecurityApplication.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import com.example.SpringSecurityApplication.model.UserInfo;
 
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 public class UserInfoDetails implements UserDetails {
 
+    private Long id;
     private String name;
     private String password;
     private List<GrantedAuthority> authorities;
+    private long version;
 
     public UserInfoDetails(UserInfo userInfo) {
-        name = userInfo.getUsername();
-        password = userInfo.getPassword();
-        authorities = Arrays.stream(userInfo.getRoles().split(","))
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+        this(userInfo.getId(), userInfo.getUsername(), userInfo.getPassword(), userInfo.getRoles(), userInfo.getTokenVersion());
+    }
+
+    private UserInfoDetails(Long id, String name, String password, String roles, long version) {
+        this.id = id;
+        this.name = name;
+        this.password = password;
+        this.version = version;
+        authorities = GrantedAuthorities.of(roles);
         //log.info("Authorties: {}", authorities);
     }
 
+    /**
+     * Builds a principal from an access token issued with {@code jwt.authoritiesInToken}; it carries no password and no id.
+     */
+    public static UserInfoDetails fromClaims(VerifiedClaims claims) {
+        long version = claims.version() != null ? claims.version() : 0L;
+        return new UserInfoDetails(null, claims.username(), null, claims.roles(), version);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -37,8 +48,19 @@ public class UserInfoDetails implements UserDetails {
         return password;
     }
 
+    /**
+     * @return the {@code users.id} of the user, or {@code null} for a principal built from token claims
+     */
+    public Long getId() {
+        return id;
+    }
+
     @Override
     public String getUsername() {
         return name;
     }
+
+    public long getVersion() {
+        return version;
+    }
 }
@@ -15,12 +15,28 @@ public class UserInfoService implements UserDetailsService {
 
     private final UserInfoRepository repository;
     private final PasswordEncoder encoder;
-    public UserInfoService(UserInfoRepository repository, PasswordEncoder encoder) {
+    private final UserDetailsCache userDetailsCache;
+    private final KnownUsernames knownUsernames;
+    public UserInfoService(UserInfoRepository repository, PasswordEncoder encoder, UserDetailsCache userDetailsCache,
+                           KnownUsernames knownUsernames) {
         this.repository = repository;
         this.encoder = encoder;
+        this.userDetailsCache = userDetailsCache;
+        this.knownUsernames = knownUsernames;
     }
+    /**
+     * A name missing from {@link KnownUsernames} fails without a cache or database lookup. The login still costs a
+     * password hash: {@code DaoAuthenticationProvider} answers a {@link UsernameNotFoundException} by matching the
+     * submitted password against a dummy hash, so an unknown name takes as long as a wrong password.
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        if (!knownUsernames.mightExist(username)) {
+            throw new UsernameNotFoundException("User not found " + username);
+        }
+        return userDetailsCache.get(username, this::findUserDetails);
+    }
+    private UserDetails findUserDetails(String username) {
         Optional<UserInfo> userDetail = repository.findByUsername(username);
         return userDetail.map(UserInfoDetails::new)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found " + username));
@@ -28,6 +44,8 @@ public class UserInfoService implements UserDetailsService {
     public String addUser(UserInfo userInfo) {
         userInfo.setPassword(encoder.encode(userInfo.getPassword()));
         repository.save(userInfo);
+        userDetailsCache.invalidate(userInfo.getUsername());
+        knownUsernames.add(userInfo.getUsername());
         return "User Added Successfully";
     }
 
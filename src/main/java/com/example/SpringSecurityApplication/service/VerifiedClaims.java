@@ -0,0 +1,30 @@
+package com.example.SpringSecurityApplication.service;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Date;
+
+public record VerifiedClaims(String id, String username, Date issuedAt, Date expiration, String roles, Long version) {
+
+    static VerifiedClaims from(Claims claims) {
+        return new VerifiedClaims(claims.getId(), claims.getSubject(), claims.getIssuedAt(), claims.getExpiration(),
+                claims.get(JwtService.ROLES_CLAIM, String.class), claims.get(JwtService.VERSION_CLAIM, Long.class));
+    }
+
+    public boolean hasAuthorities() {
+        return roles != null;
+    }
+
+    /**
+     * @return whether the token was issued before the user's token version was last bumped; a token without a
+     * {@code ver} claim counts as version 0
+     */
+    public boolean predates(UserDetails user) {
+        return user instanceof UserInfoDetails details && (version != null ? version : 0L) < details.getVersion();
+    }
+
+    public boolean isExpired() {
+        return expiration.before(new Date());
+    }
+}
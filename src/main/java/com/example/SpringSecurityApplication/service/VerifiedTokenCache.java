@@ -0,0 +1,132 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Remembers access tokens whose signature has already been verified, so a client repeating the same bearer token
+ * skips the signature check and the JSON parsing. Keyed by the credential exactly as presented, which for
+ * {@link com.example.SpringSecurityApplication.filter.JwtAuthFilter} is the whole {@code Authorization} header value,
+ * so a hit copies nothing out of the header. A hit requires the exact same characters, so a forged token can never
+ * match an entry. Each entry expires at the token's {@code exp}.
+ * <p>
+ * Only verification is cached. Callers still apply the revocation checks on every request and
+ * {@link #invalidate(String) invalidate} a token once it is found revoked; all entries are dropped when the
+ * signing keys change.
+ */
+@Component
+public class VerifiedTokenCache implements MeterBinder {
+
+    private final boolean enabled;
+    private final boolean authoritiesInToken;
+    private final Clock clock;
+    private final Cache<String, VerifiedToken> cache;
+
+    @Autowired
+    public VerifiedTokenCache(@Value("${verifiedTokenCache.enabled:false}") boolean enabled,
+                              @Value("${verifiedTokenCache.maxSize:10000}") long maxSize,
+                              @Value("${jwt.authoritiesInToken:false}") boolean authoritiesInToken) {
+        this(enabled, maxSize, authoritiesInToken, Clock.systemUTC());
+    }
+
+    VerifiedTokenCache(boolean enabled, long maxSize, boolean authoritiesInToken, Clock clock) {
+        this.enabled = enabled;
+        this.authoritiesInToken = authoritiesInToken;
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+                        return untilExpiration(verified);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+                        return untilExpiration(verified);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached verification of {@code credential} or verifies it with {@code verifier} and caches the result.
+     * Concurrent misses for the same token may each verify it; that is cheaper than making them wait on each other.
+     *
+     * @throws io.jsonwebtoken.JwtException from the verifier if the token is invalid; failures are not cached
+     */
+    public VerifiedToken get(String credential, Function<String, VerifiedClaims> verifier) {
+        if (!enabled) {
+            return verify(credential, verifier);
+        }
+        VerifiedToken verified = cache.getIfPresent(credential);
+        if (verified == null) {
+            verified = verify(credential, verifier);
+            cache.put(credential, verified);
+        }
+        return verified;
+    }
+
+    /**
+     * Roles in the claims are only trusted with {@code jwt.authoritiesInToken} enabled; once it is switched off, tokens
+     * issued with roles before fall back to loading the user.
+     */
+    private VerifiedToken verify(String credential, Function<String, VerifiedClaims> verifier) {
+        VerifiedClaims claims = verifier.apply(credential);
+        return new VerifiedToken(claims, authoritiesInToken && claims.hasAuthorities() ? UserInfoDetails.fromClaims(claims) : null);
+    }
+
+    public void invalidate(String credential) {
+        cache.invalidate(credential);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new CaffeineCacheMetrics<>(cache, "verifiedTokens", Tags.empty()).bindTo(registry);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private long untilExpiration(VerifiedToken verified) {
+        long remaining = verified.claims().expiration().getTime() - clock.millis();
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remaining));
+    }
+
+    /**
+     * @param principal the user built from the token's roles, or {@code null} if the token carries none and the user
+     *                  has to be looked up
+     */
+    public record VerifiedToken(VerifiedClaims claims, UserDetails principal) {
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.SpringSecurityApplication.aspect;
+
+import com.example.SpringSecurityApplication.controllers.UserController;
+import com.example.SpringSecurityApplication.model.dto.AuthRequestDTO;
+import com.example.SpringSecurityApplication.model.dto.RefreshTokenRequestDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LoggingAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoggingAspect loggingAspect;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loggingAspect = new LoggingAspect(() -> meterRegistry, true, 1.0, "UserController.hello=0", Duration.ofMillis(500),
+                "password,secret,token,authorization");
+    }
+
+    @Test
+    void testSensitiveFields_AreRedacted() throws Exception {
+        LoggingAspect.Endpoint endpoint = loggingAspect.endpoint(
+                UserController.class.getMethod("authenticateAndGetToken", AuthRequestDTO.class));
+
+        Map<String, Object> args = loggingAspect.describeArguments(endpoint, new Object[]{new AuthRequestDTO("alice", "s3cret")});
+
+        assertEquals(Map.of("authRequestDTO", Map.of("username", "alice", "password", LoggingAspect.REDACTED)), args);
+    }
+
+    @Test
+    void testSensitiveParameters_AreRedacted() throws Exception {
+        LoggingAspect.Endpoint endpoint = loggingAspect.endpoint(UserController.class.getMethod("logout", String.class));
+
+        Map<String, Object> args = loggingAspect.describeArguments(endpoint, new Object[]{"Bearer eyJhbGciOiJIUzI1NiJ9"});
+
+        assertEquals(Map.of("authHeader", LoggingAspect.REDACTED), args);
+    }
+
+    @Test
+    void testRedaction_DoesNotDependOnNames() throws Exception {
+        LoggingAspect nothingByName = new LoggingAspect(() -> meterRegistry, true, 1.0, "", Duration.ofMillis(500), "");
+
+        Map<String, Object> header = nothingByName.describeArguments(
+                nothingByName.endpoint(UserController.class.getMethod("logout", String.class)),
+                new Object[]{"Bearer eyJhbGciOiJIUzI1NiJ9"});
+        Map<String, Object> body = nothingByName.describeArguments(
+                nothingByName.endpoint(UserController.class.getMethod("refreshToken", RefreshTokenRequestDTO.class)),
+                new Object[]{new RefreshTokenRequestDTO("d7c1e2f0")});
+
+        assertEquals(Map.of("authHeader", LoggingAspect.REDACTED), header);
+        assertEquals(Map.of("refreshTokenRequestDTO", Map.of("refreshToken", LoggingAspect.REDACTED)), body);
+    }
+
+    @Test
+    void testEndpointSampleRate_OverridesDefault() throws Exception {
+        assertEquals(0.0, loggingAspect.endpoint(UserController.class.getMethod("hello")).sampleRate());
+        assertEquals(1.0, loggingAspect.endpoint(UserController.class.getMethod("logout", String.class)).sampleRate());
+    }
+
+    @Test
+    void testAround_ReturnsResultAndRethrows() throws Throwable {
+        ProceedingJoinPoint joinPoint = joinPoint(UserController.class.getMethod("logout", String.class), "Bearer token");
+        ResponseEntity<Void> response = ResponseEntity.noContent().build();
+        when(joinPoint.proceed()).thenReturn(response).thenThrow(new IllegalStateException("boom"));
+
+        assertSame(response, loggingAspect.around(joinPoint));
+        assertThrows(IllegalStateException.class, () -> loggingAspect.around(joinPoint));
+        verify(joinPoint, times(2)).proceed();
+        assertEquals(1, meterRegistry.get("controller.invocation")
+                .tags("endpoint", "UserController.logout", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("controller.invocation")
+                .tags("endpoint", "UserController.logout", "outcome", "failure").timer().count());
+    }
+
+    private static ProceedingJoinPoint joinPoint(Method method, Object... args) {
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(method);
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getArgs()).thenReturn(args);
+        return joinPoint;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.SpringSecurityApplication.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files ({@code -rf json}) benchmark by benchmark and exits with status 1
+ * if any score got worse by more than the threshold and by more than the combined error of both runs.
+ * Allocation per operation ({@code gc.alloc.rate.norm}, from {@code -prof gc}) is compared as well.
+ * <p>
+ * Usage: {@code BenchmarkComparison <baseline.json> <current.json> [thresholdPercent]}. A missing baseline
+ * is not an error, so the first run on a machine just produces one.
+ */
+public class BenchmarkComparison {
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <current.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        Path baselineFile = Path.of(args[0]);
+        if (!Files.exists(baselineFile)) {
+            System.out.println("No baseline at " + baselineFile + ", nothing to compare against");
+            return;
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, Score> baseline = scores(objectMapper.readTree(baselineFile.toFile()));
+        Map<String, Score> current = scores(objectMapper.readTree(Path.of(args[1]).toFile()));
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score before = baseline.get(entry.getKey());
+            Score after = entry.getValue();
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  new%n", entry.getKey(), "-", after.value(), "");
+                continue;
+            }
+            double change = (after.value() - before.value()) / before.value() * 100;
+            double worse = after.higherIsBetter() ? -change : change;
+            boolean regression = worse > threshold && Math.abs(after.value() - before.value()) > before.error() + after.error();
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), before.value(), after.value(), change,
+                    after.unit(), regression ? "  REGRESSION" : "");
+        }
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Score> scores(JsonNode results) {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            String name = result.path("benchmark").asText() + params(result.path("params"));
+            String mode = result.path("mode").asText();
+            scores.put(name + " [" + mode + "]", score(result.path("primaryMetric"), "thrpt".equals(mode)));
+            Iterator<Map.Entry<String, JsonNode>> secondary = result.path("secondaryMetrics").fields();
+            while (secondary.hasNext()) {
+                Map.Entry<String, JsonNode> metric = secondary.next();
+                if (metric.getKey().endsWith(ALLOCATION_METRIC)) {
+                    scores.put(name + " [" + ALLOCATION_METRIC + "]", score(metric.getValue(), false));
+                }
+            }
+        }
+        return scores;
+    }
+
+    private static String params(JsonNode params) {
+        if (params.isMissingNode() || params.isEmpty()) {
+            return "";
+        }
+        Map<String, String> sorted = new TreeMap<>();
+        params.fields().forEachRemaining(param -> sorted.put(param.getKey(), param.getValue().asText()));
+        return sorted.toString();
+    }
+
+    private static Score score(JsonNode metric, boolean higherIsBetter) {
+        double error = metric.path("scoreError").asDouble(0);
+        return new Score(metric.path("score").asDouble(), Double.isNaN(error) ? 0 : error,
+                metric.path("scoreUnit").asText(), higherIsBetter);
+    }
+
+    private record Score(double value, double error, String unit, boolean higherIsBetter) {
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.SpringSecurityApplication.benchmark;
+
+import com.example.SpringSecurityApplication.filter.JwtAuthFilter;
+import com.example.SpringSecurityApplication.model.UserInfo;
+import com.example.SpringSecurityApplication.service.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Per-request cost of authenticating a bearer token in stateless mode ({@code jwt.authoritiesInToken}).
+ * Run through {@link #main} to get {@code gc.alloc.rate.norm}, the bytes allocated per request:
+ * {@code perRequestAllocations} reproduces the previous filter (token substring, a new details source and freshly
+ * split authorities on every request), {@code filter} and {@code filterCachedToken} run the current one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    private JwtService jwtService;
+    private JwtAuthFilter filter;
+    private JwtAuthFilter cachingFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "jwtSecret", JwtServiceBenchmark.SECRET);
+        ReflectionTestUtils.setField(jwtService, "tokenExpiration", Duration.ofHours(1));
+        ReflectionTestUtils.setField(jwtService, "authoritiesInToken", true);
+        jwtService.init();
+        String token = jwtService.generateToken(new UserInfoDetails(UserInfo.builder()
+                .username(JwtServiceBenchmark.USERNAME)
+                .password("encoded")
+                .roles("USER,ADMIN")
+                .build()));
+
+        LocalSharedTokenStore sharedTokenStore = new LocalSharedTokenStore(1000);
+        RevocationService revocationService = new RevocationService(sharedTokenStore, Duration.ofHours(1), Duration.ofSeconds(1), 1000);
+        AccessTokenDenylist accessTokenDenylist = new AccessTokenDenylist(sharedTokenStore, Duration.ofHours(1), 1000, 0.01);
+        UserInfoService userInfoService = mock(UserInfoService.class);
+        filter = new JwtAuthFilter(jwtService, userInfoService, revocationService, accessTokenDenylist,
+                new VerifiedTokenCache(false, 1000, true), new SimpleMeterRegistry());
+        cachingFilter = new JwtAuthFilter(jwtService, userInfoService, revocationService, accessTokenDenylist,
+                new VerifiedTokenCache(true, 1000, true), new SimpleMeterRegistry());
+
+        request = new MockHttpServletRequest("GET", "/api/user");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Authentication filter() throws ServletException, IOException {
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, response, NO_OP_CHAIN);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Authentication filterCachedToken() throws ServletException, IOException {
+        SecurityContextHolder.clearContext();
+        cachingFilter.doFilter(request, response, NO_OP_CHAIN);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Authentication perRequestAllocations() {
+        SecurityContextHolder.clearContext();
+        String token = request.getHeader("Authorization").substring(7);
+        VerifiedClaims claims = jwtService.parseAndValidate(token);
+        List<GrantedAuthority> authorities = Arrays.stream(claims.roles().split(","))
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(claims.username(), null, authorities);
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        return authentication;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthFilterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
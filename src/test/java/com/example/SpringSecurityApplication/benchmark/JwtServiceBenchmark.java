@@ -0,0 +1,98 @@
+package com.example.SpringSecurityApplication.benchmark;
+
+import com.example.SpringSecurityApplication.service.JwtService;
+import com.example.SpringSecurityApplication.service.VerifiedClaims;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    static final String SECRET = "AAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8gISIjJCUmJygpKissLS4vMDEyMzQ1Njc4OTo7PD0+Pw==";
+    static final String USERNAME = "benchmark-user";
+    static final Duration EXPIRATION = Duration.ofMinutes(10);
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "tokenExpiration", EXPIRATION);
+        jwtService.init();
+        token = jwtService.generateToken(USERNAME);
+    }
+
+    @Benchmark
+    public String generateCached() {
+        return jwtService.generateToken(USERNAME);
+    }
+
+    @Benchmark
+    public String generatePerCall() {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setClaims(new HashMap<>())
+                .setSubject(USERNAME)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + EXPIRATION.toMillis()))
+                .signWith(perCallKey(), SignatureAlgorithm.HS256).compact();
+    }
+
+    @Benchmark
+    public String validateCached() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public String validatePerCall() {
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(perCallKey())
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+        return claims.getSubject();
+    }
+
+    @Benchmark
+    public VerifiedClaims filterSingleParse() {
+        return jwtService.parseAndValidate(token);
+    }
+
+    @Benchmark
+    public boolean filterTripleParse() {
+        String username = jwtService.extractUsername(token);
+        return username.equals(jwtService.extractUsername(token))
+                && !jwtService.extractExpiration(token).before(new Date());
+    }
+
+    private static Key perCallKey() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtServiceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.SpringSecurityApplication.benchmark;
+
+import com.example.SpringSecurityApplication.SpringSecurityApplication;
+import com.example.SpringSecurityApplication.model.RefreshToken;
+import com.example.SpringSecurityApplication.model.UserInfo;
+import com.example.SpringSecurityApplication.repository.UserInfoRepository;
+import com.example.SpringSecurityApplication.service.RefreshTokenService;
+import com.example.SpringSecurityApplication.service.UserInfoDetails;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * {@link RefreshTokenService} with the JPA store against an in-memory H2 database in PostgreSQL mode.
+ * The absolute numbers leave out network round trips to a real Postgres, but the ORM, transaction
+ * and hashing work per operation is the same, which is what regressions usually come from.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RefreshTokenServiceBenchmark {
+
+    private static final int LOOKUP_TOKENS = 1024;
+
+    private ConfigurableApplicationContext context;
+    private RefreshTokenService refreshTokenService;
+    private UserInfoDetails user;
+    private String[] tokens;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Passed as command line arguments so they override the placeholders in application.yaml.
+        context = new SpringApplicationBuilder(SpringSecurityApplication.class).run(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--jwt.secret=" + JwtServiceBenchmark.SECRET,
+                "--server.port=0",
+                "--refreshTokenPurge.enabled=false",
+                "--requestLogging.enabled=false",
+                "--logging.level.root=WARN");
+        user = new UserInfoDetails(context.getBean(UserInfoRepository.class).save(UserInfo.builder()
+                .username(JwtServiceBenchmark.USERNAME)
+                .password("encoded")
+                .email("benchmark@example.com")
+                .roles("USER")
+                .build()));
+        refreshTokenService = context.getBean(RefreshTokenService.class);
+        tokens = IntStream.range(0, LOOKUP_TOKENS)
+                .mapToObj(i -> refreshTokenService.createRefreshToken(user).getToken())
+                .toArray(String[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+        String token;
+
+        @Setup(Level.Iteration)
+        public void login(RefreshTokenServiceBenchmark benchmark) {
+            token = benchmark.refreshTokenService.createRefreshToken(benchmark.user).getToken();
+        }
+    }
+
+    @Benchmark
+    public RefreshToken create() {
+        return refreshTokenService.createRefreshToken(user);
+    }
+
+    @Benchmark
+    public Optional<RefreshToken> lookup() {
+        return refreshTokenService.findByToken(tokens[next++ & (LOOKUP_TOKENS - 1)]);
+    }
+
+    @Benchmark
+    public RefreshToken rotate(Session session) {
+        RefreshToken rotated = refreshTokenService.rotate(session.token);
+        session.token = rotated.getToken();
+        return rotated;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RefreshTokenServiceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.SpringSecurityApplication.benchmark;
+
+import com.example.SpringSecurityApplication.model.UserInfo;
+import com.example.SpringSecurityApplication.service.UserInfoDetails;
+import com.example.SpringSecurityApplication.service.VerifiedClaims;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the principal from the database row (lookup mode) and from token claims (stateless mode).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserInfoDetailsBenchmark {
+
+    @Param({"USER", "USER,ADMIN"})
+    public String roles;
+
+    private UserInfo userInfo;
+    private VerifiedClaims claims;
+
+    @Setup
+    public void setUp() {
+        userInfo = UserInfo.builder()
+                .username(JwtServiceBenchmark.USERNAME)
+                .password("encoded")
+                .email("benchmark@example.com")
+                .roles(roles)
+                .tokenVersion(1)
+                .build();
+        long now = System.currentTimeMillis();
+        claims = new VerifiedClaims("jti", JwtServiceBenchmark.USERNAME, new Date(now), new Date(now + 60_000), roles, 1L);
+    }
+
+    @Benchmark
+    public UserInfoDetails fromEntity() {
+        return new UserInfoDetails(userInfo);
+    }
+
+    @Benchmark
+    public UserInfoDetails fromClaims() {
+        return UserInfoDetails.fromClaims(claims);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UserInfoDetailsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.SpringSecurityApplication.benchmark;
+
+import com.example.SpringSecurityApplication.model.UserInfo;
+import com.example.SpringSecurityApplication.service.JwtService;
+import com.example.SpringSecurityApplication.service.UserInfoDetails;
+import com.example.SpringSecurityApplication.service.VerifiedTokenCache;
+import com.example.SpringSecurityApplication.service.VerifiedTokenCache.VerifiedToken;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating a repeated bearer token with and without {@link VerifiedTokenCache}.
+ * {@code miss} measures the first request of a token: lookup, signature check, parsing and the insert.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VerifiedTokenCacheBenchmark {
+
+    private JwtService jwtService;
+    private VerifiedTokenCache cache;
+    private VerifiedTokenCache disabled;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "jwtSecret", JwtServiceBenchmark.SECRET);
+        ReflectionTestUtils.setField(jwtService, "tokenExpiration", Duration.ofHours(1));
+        ReflectionTestUtils.setField(jwtService, "authoritiesInToken", true);
+        jwtService.init();
+        token = jwtService.generateToken(new UserInfoDetails(UserInfo.builder()
+                .username(JwtServiceBenchmark.USERNAME)
+                .password("encoded")
+                .roles("USER,ADMIN")
+                .build()));
+        cache = new VerifiedTokenCache(true, 10_000, true);
+        disabled = new VerifiedTokenCache(false, 10_000, true);
+        cache.get(token, jwtService::parseAndValidate);
+    }
+
+    @Benchmark
+    public VerifiedToken hit() {
+        return cache.get(token, jwtService::parseAndValidate);
+    }
+
+    @Benchmark
+    public VerifiedToken miss() {
+        cache.invalidate(token);
+        return cache.get(token, jwtService::parseAndValidate);
+    }
+
+    @Benchmark
+    public VerifiedToken uncached() {
+        return disabled.get(token, jwtService::parseAndValidate);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(VerifiedTokenCacheBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
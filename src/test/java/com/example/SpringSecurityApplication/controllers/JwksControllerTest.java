@@ -0,0 +1,66 @@
+package com.example.SpringSecurityApplication.controllers;
+
+import com.example.SpringSecurityApplication.service.JwtService;
+import com.example.SpringSecurityApplication.service.SigningKeyRing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+public class JwksControllerTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    private JwksController jwksController;
+    private SigningKeyRing keyRing;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        jwksController = new JwksController(jwtService, Duration.ofMinutes(5));
+        keyRing = SigningKeyRing.generate();
+    }
+
+    @Test
+    public void testJwks_PublishesKeysWithEtagAndCacheControl() {
+        when(jwtService.keyRing()).thenReturn(keyRing);
+
+        ResponseEntity<String> response = jwksController.jwks(null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(keyRing.etag(), response.getHeaders().getETag());
+        assertFalse(keyRing.etag().startsWith("W/"));
+        assertEquals("max-age=300, public", response.getHeaders().getCacheControl());
+        assertTrue(response.getBody().contains("\"kid\":\"" + keyRing.activeKid() + "\""));
+        assertTrue(response.getBody().contains("\"crv\":\"P-256\""));
+    }
+
+    @Test
+    public void testJwks_NotModifiedWhenEtagMatches() {
+        when(jwtService.keyRing()).thenReturn(keyRing);
+
+        ResponseEntity<String> response = jwksController.jwks(keyRing.etag());
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals(keyRing.etag(), response.getHeaders().getFirst(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void testJwks_EmptyForSharedSecret() {
+        when(jwtService.keyRing()).thenReturn(null);
+
+        ResponseEntity<String> response = jwksController.jwks(null);
+
+        assertEquals(JwksController.EMPTY_JWKS, response.getBody());
+    }
+}
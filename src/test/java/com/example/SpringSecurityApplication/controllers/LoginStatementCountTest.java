@@ -0,0 +1,142 @@
+package com.example.SpringSecurityApplication.controllers;
+
+import com.example.SpringSecurityApplication.model.UserInfo;
+import com.example.SpringSecurityApplication.model.dto.AuthRequestDTO;
+import com.example.SpringSecurityApplication.repository.UserInfoRepository;
+import com.example.SpringSecurityApplication.service.RefreshTokenService;
+import com.example.SpringSecurityApplication.service.UserDetailsCache;
+import com.example.SpringSecurityApplication.service.UserInfoService;
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Counts the SQL statements one {@code /api/login} sends to the database, on an in-memory H2 database in
+ * PostgreSQL mode with the datasource wrapped by datasource-proxy. Counts are per thread, so the background
+ * password upgrade and purge jobs do not show up.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:login;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "jwt.secret=AAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8gISIjJCUmJygpKissLS4vMDEyMzQ1Njc4OTo7PD0+Pw==",
+        "refreshTokenPurge.enabled=false",
+        "loginRateLimit.enabled=false"
+})
+class LoginStatementCountTest {
+
+    private static final String USERNAME = "countedUser";
+    private static final String PASSWORD = "countedPassword";
+
+    @Autowired
+    private UserController userController;
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserInfoService userInfoService;
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @BeforeEach
+    void setUp() {
+        if (userInfoRepository.findByUsername(USERNAME).isEmpty()) {
+            userInfoService.addUser(UserInfo.builder()
+                    .username(USERNAME)
+                    .password(PASSWORD)
+                    .email("counted@example.com")
+                    .roles("USER")
+                    .build());
+        }
+        // Reserves the first block of refresh token ids, which would otherwise show up as one extra select.
+        login();
+        userDetailsCache.invalidate(USERNAME);
+        QueryCountHolder.clear();
+    }
+
+    @Test
+    void testLogin_LoadsTheUserOnceAndInsertsTheToken() {
+        login();
+
+        QueryCount count = QueryCountHolder.getGrandTotal();
+        assertEquals(1, count.getSelect());
+        assertEquals(1, count.getInsert());
+        assertEquals(2, count.getTotal());
+    }
+
+    @Test
+    void testLogin_WithCachedUserOnlyInsertsTheToken() {
+        login();
+        QueryCountHolder.clear();
+
+        login();
+
+        QueryCount count = QueryCountHolder.getGrandTotal();
+        assertEquals(0, count.getSelect());
+        assertEquals(1, count.getTotal());
+    }
+
+    @Test
+    void testCreateByUsername_LoadsTheUserAgain() {
+        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD));
+        refreshTokenService.createRefreshToken(USERNAME);
+
+        QueryCount count = QueryCountHolder.getGrandTotal();
+        assertEquals(2, count.getSelect());
+        assertEquals(1, count.getInsert());
+    }
+
+    @Test
+    void testLogin_UnknownUserRunsNoStatements() {
+        assertThrows(BadCredentialsException.class, () -> authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken("unknownUser", PASSWORD)));
+
+        assertEquals(0, QueryCountHolder.getGrandTotal().getTotal());
+    }
+
+    private void login() {
+        userController.authenticateAndGetToken(new AuthRequestDTO(USERNAME, PASSWORD));
+    }
+
+    @TestConfiguration
+    static class StatementCountingConfig {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                        return ProxyDataSourceBuilder.create(dataSource).name("counted").countQuery().build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
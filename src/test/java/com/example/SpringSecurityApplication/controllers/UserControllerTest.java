@@ -1,13 +1,19 @@
 package com.example.SpringSecurityApplication.controllers;
 
+import com.example.SpringSecurityApplication.exception.TokenRefreshException;
 import com.example.SpringSecurityApplication.model.RefreshToken;
 import com.example.SpringSecurityApplication.model.UserInfo;
 import com.example.SpringSecurityApplication.model.dto.AuthRequestDTO;
 import com.example.SpringSecurityApplication.model.dto.JwtResponseDTO;
 import com.example.SpringSecurityApplication.model.dto.RefreshTokenRequestDTO;
+import com.example.SpringSecurityApplication.service.AccessTokenDenylist;
 import com.example.SpringSecurityApplication.service.JwtService;
 import com.example.SpringSecurityApplication.service.RefreshTokenService;
+import com.example.SpringSecurityApplication.service.UserInfoDetails;
 import com.example.SpringSecurityApplication.service.UserInfoService;
+import com.example.SpringSecurityApplication.service.VerifiedClaims;
+import com.example.SpringSecurityApplication.service.VerifiedTokenCache;
+import io.jsonwebtoken.MalformedJwtException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -18,8 +24,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.util.Date;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
@@ -38,6 +47,12 @@ public class UserControllerTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private AccessTokenDenylist accessTokenDenylist;
+
+    @Mock
+    private VerifiedTokenCache verifiedTokenCache;
+
     @InjectMocks
     private UserController userController;
 
@@ -62,13 +77,15 @@ public class UserControllerTest {
     public void testAuthenticateAndGetToken_Success() {
         AuthRequestDTO authRequestDTO = new AuthRequestDTO("testUser", "testPass");
         Authentication authentication = mock(Authentication.class);
+        UserInfoDetails principal = new UserInfoDetails(UserInfo.builder().id(1L).username("testUser").password("encoded").roles("USER").build());
         RefreshToken refreshToken = new RefreshToken();
         refreshToken.setToken("refreshToken");
 
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
         when(authentication.isAuthenticated()).thenReturn(true);
-        when(jwtService.generateToken("testUser")).thenReturn("accessToken");
-        when(refreshTokenService.createRefreshToken("testUser")).thenReturn(refreshToken);
+        when(authentication.getPrincipal()).thenReturn(principal);
+        when(jwtService.generateToken(principal)).thenReturn("accessToken");
+        when(refreshTokenService.createRefreshToken(principal)).thenReturn(refreshToken);
 
         JwtResponseDTO response = userController.authenticateAndGetToken(authRequestDTO);
 
@@ -95,29 +112,54 @@ public class UserControllerTest {
         RefreshToken refreshToken = mock(RefreshToken.class);
         UserInfo userInfo = mock(UserInfo.class);
 
-        when(refreshTokenService.findByToken("validRefreshToken")).thenReturn(java.util.Optional.of(refreshToken));
-        when(refreshTokenService.verifyExpiration(refreshToken)).thenReturn(refreshToken);
+        when(refreshTokenService.rotate("validRefreshToken")).thenReturn(refreshToken);
+        when(refreshToken.getToken()).thenReturn("rotatedRefreshToken");
         when(refreshToken.getUserInfo()).thenReturn(userInfo);
         when(userInfo.getUsername()).thenReturn("testUser");
-        when(jwtService.generateToken("testUser")).thenReturn("newAccessToken");
+        UserDetails userDetails = new UserInfoDetails(UserInfo.builder().username("testUser").password("encoded").roles("USER").build());
+        when(userInfoService.loadUserByUsername("testUser")).thenReturn(userDetails);
+        when(jwtService.generateToken(userDetails)).thenReturn("newAccessToken");
 
         JwtResponseDTO response = userController.refreshToken(refreshTokenRequestDTO);
 
         assertEquals("newAccessToken", response.getAccessToken());
-        assertEquals("validRefreshToken", response.getRefreshToken());
+        assertEquals("rotatedRefreshToken", response.getRefreshToken());
     }
 
     @Test
     public void testRefreshToken_Failure() {
         RefreshTokenRequestDTO refreshTokenRequestDTO = new RefreshTokenRequestDTO("invalidRefreshToken");
 
-        when(refreshTokenService.findByToken("invalidRefreshToken")).thenReturn(java.util.Optional.empty());
+        when(refreshTokenService.rotate("invalidRefreshToken")).thenThrow(new TokenRefreshException("Refresh Token is not in DB..!!"));
 
-        assertThrows(RuntimeException.class, () -> {
+        assertThrows(TokenRefreshException.class, () -> {
             userController.refreshToken(refreshTokenRequestDTO);
         });
     }
 
+    @Test
+    public void testLogout_DeniesCurrentAccessToken() {
+        Date expiration = new Date(System.currentTimeMillis() + 60_000);
+        when(jwtService.parseAndValidate("accessToken"))
+                .thenReturn(new VerifiedClaims("jti", "testUser", new Date(), expiration, null, null));
+
+        ResponseEntity<Void> response = userController.logout("Bearer accessToken");
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(accessTokenDenylist, times(1)).revoke("jti", expiration);
+        verify(verifiedTokenCache, times(1)).invalidate("Bearer accessToken");
+    }
+
+    @Test
+    public void testLogout_MalformedHeaderIsUnauthorized() {
+        when(jwtService.parseAndValidate("garbage")).thenThrow(new MalformedJwtException("bad token"));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, userController.logout(null).getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, userController.logout("Basic").getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, userController.logout("Bearer garbage").getStatusCode());
+        verifyNoInteractions(accessTokenDenylist, verifiedTokenCache);
+    }
+
     @Test
     public void testHello() {
         String response = userController.hello();
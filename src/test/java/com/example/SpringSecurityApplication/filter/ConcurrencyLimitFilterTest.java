@@ -0,0 +1,90 @@
+package com.example.SpringSecurityApplication.filter;
+
+import com.example.SpringSecurityApplication.service.ConcurrencyLimiter;
+import com.example.SpringSecurityApplication.service.ConcurrencyLimiter.Partition;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private ConcurrencyLimiter concurrencyLimiter;
+    private ConcurrencyLimitFilter filter;
+    private final AtomicInteger chainCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        concurrencyLimiter = new ConcurrencyLimiter(true, 1, 1, 1, 1, 1, 1.5, 0.2, 600, 4);
+        filter = new ConcurrencyLimitFilter(concurrencyLimiter);
+    }
+
+    @Test
+    void testRequest_ShedWith503WhileItsPartitionIsFull() {
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[2];
+
+        MockHttpServletResponse outer = request("/api/login", (req, res) -> {
+            chainCalls.incrementAndGet();
+            nested[0] = request("/api/register", (r, s) -> chainCalls.incrementAndGet());
+            nested[1] = request("/api/user", (r, s) -> chainCalls.incrementAndGet());
+        });
+
+        assertEquals(200, outer.getStatus());
+        assertEquals(503, nested[0].getStatus());
+        assertEquals("1", nested[0].getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(200, nested[1].getStatus());
+        assertEquals(2, chainCalls.get());
+        assertEquals(0, concurrencyLimiter.getInFlight(Partition.EXPENSIVE));
+    }
+
+    @Test
+    void testRequest_PermitReleasedWhenTheChainThrows() {
+        assertThrows(IllegalStateException.class, () -> request("/api/user", (req, res) -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(0, concurrencyLimiter.getInFlight(Partition.CHEAP));
+    }
+
+    @Test
+    void testActuator_IsNotLimited() {
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+
+        request("/api/user", (req, res) ->
+                nested[0] = request("/actuator/prometheus", (r, s) -> chainCalls.incrementAndGet()));
+
+        assertEquals(200, nested[0].getStatus());
+        assertEquals(1, chainCalls.get());
+    }
+
+    @Test
+    void testUserImport_IsNotLimited() {
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+
+        request("/api/user", (req, res) ->
+                nested[0] = request("/api/admin/users/import", (r, s) -> chainCalls.incrementAndGet()));
+
+        assertEquals(200, nested[0].getStatus());
+        assertEquals(1, chainCalls.get());
+    }
+
+    private MockHttpServletResponse request(String path, FilterChain chain) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, chain);
+        } catch (IOException | ServletException e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+}
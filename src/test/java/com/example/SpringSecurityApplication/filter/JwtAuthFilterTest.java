@@ -0,0 +1,229 @@
+package com.example.SpringSecurityApplication.filter;
+
+import com.example.SpringSecurityApplication.model.UserInfo;
+import com.example.SpringSecurityApplication.service.AccessTokenDenylist;
+import com.example.SpringSecurityApplication.service.JwtService;
+import com.example.SpringSecurityApplication.service.LocalSharedTokenStore;
+import com.example.SpringSecurityApplication.service.RevocationService;
+import com.example.SpringSecurityApplication.service.UserInfoDetails;
+import com.example.SpringSecurityApplication.service.UserInfoService;
+import com.example.SpringSecurityApplication.service.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtAuthFilterTest {
+
+    private static final String SECRET = "AAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8gISIjJCUmJygpKissLS4vMDEyMzQ1Njc4OTo7PD0+Pw==";
+    private static final int REQUESTS = 1_000;
+
+    @Mock
+    private UserInfoService userInfoService;
+
+    private JwtService jwtService;
+    private RevocationService revocationService;
+    private AccessTokenDenylist accessTokenDenylist;
+    private VerifiedTokenCache verifiedTokenCache;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtAuthFilter jwtAuthFilter;
+    private UserInfoDetails user;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        jwtService = new JwtService();
+        setField("jwtSecret", SECRET);
+        setField("tokenExpiration", Duration.ofMinutes(1));
+        jwtService.init();
+        LocalSharedTokenStore sharedTokenStore = new LocalSharedTokenStore(1000);
+        revocationService = new RevocationService(sharedTokenStore, Duration.ofMinutes(1), Duration.ofSeconds(1), 1000);
+        accessTokenDenylist = new AccessTokenDenylist(sharedTokenStore, Duration.ofMinutes(1), 1000, 0.01);
+        verifiedTokenCache = new VerifiedTokenCache(true, 1000, true);
+        meterRegistry = new SimpleMeterRegistry();
+        jwtAuthFilter = new JwtAuthFilter(jwtService, userInfoService, revocationService, accessTokenDenylist, verifiedTokenCache,
+                meterRegistry);
+        user = new UserInfoDetails(UserInfo.builder()
+                .username("testUser")
+                .password("encoded")
+                .roles("USER,ADMIN")
+                .tokenVersion(3)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testStatelessMode_NeverLoadsUser() throws Exception {
+        setField("authoritiesInToken", true);
+        String token = jwtService.generateToken(user);
+
+        for (int i = 0; i < REQUESTS; i++) {
+            Authentication authentication = authenticate(token);
+            assertEquals("testUser", authentication.getName());
+            assertEquals(AuthorityUtils.createAuthorityList("USER", "ADMIN"), authentication.getAuthorities());
+            assertEquals(3L, ((UserInfoDetails) authentication.getPrincipal()).getVersion());
+        }
+
+        verifyNoInteractions(userInfoService);
+        assertEquals(REQUESTS, outcomeCount("authenticated"));
+    }
+
+    @Test
+    void testLookupMode_LoadsUserPerRequest() throws Exception {
+        setField("authoritiesInToken", false);
+        String token = jwtService.generateToken(user);
+        when(userInfoService.loadUserByUsername("testUser")).thenReturn(user);
+
+        for (int i = 0; i < REQUESTS; i++) {
+            assertEquals("testUser", authenticate(token).getName());
+        }
+
+        verify(userInfoService, times(REQUESTS)).loadUserByUsername("testUser");
+    }
+
+    @Test
+    void testRevokedUser_IsNotAuthenticated() throws Exception {
+        setField("authoritiesInToken", true);
+        String token = jwtService.generateToken(user);
+
+        revocationService.revokeUser("testUser");
+
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user");
+        request.addHeader("Authorization", "Bearer " + token);
+        jwtAuthFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(1, outcomeCount("revoked"));
+    }
+
+    @Test
+    void testOlderTokenVersion_IsNotAuthenticated() throws Exception {
+        setField("authoritiesInToken", true);
+        String token = jwtService.generateToken(user);
+
+        revocationService.revokeVersionsBelow("testUser", 4);
+
+        assertUnauthenticated(token);
+        assertEquals(1, outcomeCount("revoked"));
+    }
+
+    @Test
+    void testLookupMode_TokenOlderThanTheLoadedUserIsNotAuthenticated() throws Exception {
+        String token = jwtService.generateToken(user);
+        UserInfoDetails changed = new UserInfoDetails(UserInfo.builder()
+                .username("testUser")
+                .password("encoded")
+                .roles("USER")
+                .tokenVersion(4)
+                .build());
+        when(userInfoService.loadUserByUsername("testUser")).thenReturn(changed);
+
+        assertUnauthenticated(token);
+        assertEquals(1, outcomeCount("revoked"));
+    }
+
+    @Test
+    void testRolesInToken_IgnoredWhenAuthoritiesInTokenIsOff() throws Exception {
+        setField("authoritiesInToken", true);
+        String token = jwtService.generateToken(user);
+        jwtAuthFilter = new JwtAuthFilter(jwtService, userInfoService, revocationService, accessTokenDenylist,
+                new VerifiedTokenCache(true, 1000, false), meterRegistry);
+        when(userInfoService.loadUserByUsername("testUser")).thenReturn(user);
+
+        assertEquals("testUser", authenticate(token).getName());
+
+        verify(userInfoService).loadUserByUsername("testUser");
+    }
+
+    @Test
+    void testDeniedToken_IsNotAuthenticatedButOtherTokensAre() throws Exception {
+        setField("authoritiesInToken", true);
+        String denied = jwtService.generateToken(user);
+        String other = jwtService.generateToken(user);
+        accessTokenDenylist.revoke(jwtService.parseAndValidate(denied).id(), jwtService.extractExpiration(denied));
+
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user");
+        request.addHeader("Authorization", "Bearer " + denied);
+        jwtAuthFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals("testUser", authenticate(other).getName());
+    }
+
+    @Test
+    void testCachedToken_IsVerifiedOnceAndDroppedWhenRevoked() throws Exception {
+        setField("authoritiesInToken", true);
+        String token = jwtService.generateToken(user);
+
+        for (int i = 0; i < REQUESTS; i++) {
+            assertEquals("testUser", authenticate(token).getName());
+        }
+        assertEquals(1, verifiedTokenCache.stats().missCount());
+        assertEquals(REQUESTS - 1, verifiedTokenCache.stats().hitCount());
+
+        accessTokenDenylist.revoke(jwtService.parseAndValidate(token).id(), jwtService.extractExpiration(token));
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user");
+        request.addHeader("Authorization", "Bearer " + token);
+        jwtAuthFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(0, verifiedTokenCache.size());
+    }
+
+    @Test
+    void testRequestWithoutToken_IsCounted() throws Exception {
+        jwtAuthFilter.doFilter(new MockHttpServletRequest("GET", "/api/user"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(1, outcomeCount("no_token"));
+    }
+
+    private void assertUnauthenticated(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user");
+        request.addHeader("Authorization", "Bearer " + token);
+        jwtAuthFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private long outcomeCount(String outcome) {
+        return meterRegistry.get("auth.filter").tag("outcome", outcome).timer().count();
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user");
+        request.addHeader("Authorization", "Bearer " + token);
+        jwtAuthFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        return authentication;
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = JwtService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(jwtService, value);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.SpringSecurityApplication.filter;
+
+import com.example.SpringSecurityApplication.model.UserInfo;
+import com.example.SpringSecurityApplication.service.AccessTokenDenylist;
+import com.example.SpringSecurityApplication.service.JwtService;
+import com.example.SpringSecurityApplication.service.LocalSharedTokenStore;
+import com.example.SpringSecurityApplication.service.RevocationService;
+import com.example.SpringSecurityApplication.service.UserInfoDetails;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtAuthWebFilterTest {
+
+    private static final String SECRET = "AAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8gISIjJCUmJygpKissLS4vMDEyMzQ1Njc4OTo7PD0+Pw==";
+
+    @Mock
+    private ReactiveUserDetailsService userDetailsService;
+
+    private JwtService jwtService;
+    private RevocationService revocationService;
+    private AccessTokenDenylist accessTokenDenylist;
+    private JwtAuthWebFilter jwtAuthWebFilter;
+    private UserInfoDetails user;
+    private final AtomicReference<Authentication> captured = new AtomicReference<>();
+    private final WebFilterChain chain = exchange -> ReactiveSecurityContextHolder.getContext()
+            .map(SecurityContext::getAuthentication)
+            .doOnNext(captured::set)
+            .then();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        jwtService = new JwtService();
+        setField("jwtSecret", SECRET);
+        setField("tokenExpiration", Duration.ofMinutes(1));
+        jwtService.init();
+        LocalSharedTokenStore sharedTokenStore = new LocalSharedTokenStore(1000);
+        revocationService = new RevocationService(sharedTokenStore, Duration.ofMinutes(1), Duration.ofSeconds(1), 1000);
+        accessTokenDenylist = new AccessTokenDenylist(sharedTokenStore, Duration.ofMinutes(1), 1000, 0.01);
+        jwtAuthWebFilter = new JwtAuthWebFilter(jwtService, userDetailsService, revocationService, accessTokenDenylist);
+        user = new UserInfoDetails(UserInfo.builder().username("testUser").password("encoded").roles("USER").build());
+    }
+
+    @Test
+    void testStatelessToken_AuthenticatesWithoutLookup() throws Exception {
+        setField("authoritiesInToken", true);
+
+        filter("Bearer " + jwtService.generateToken(user));
+
+        assertEquals("testUser", captured.get().getName());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void testRolesInToken_IgnoredWhenAuthoritiesInTokenIsOff() throws Exception {
+        setField("authoritiesInToken", true);
+        String token = jwtService.generateToken(user);
+        setField("authoritiesInToken", false);
+        when(userDetailsService.findByUsername("testUser")).thenReturn(Mono.just(user));
+
+        filter("Bearer " + token);
+
+        assertEquals("testUser", captured.get().getName());
+        verify(userDetailsService).findByUsername("testUser");
+    }
+
+    @Test
+    void testLookupToken_LoadsUserReactively() {
+        when(userDetailsService.findByUsername("testUser")).thenReturn(Mono.just(user));
+
+        filter("Bearer " + jwtService.generateToken(user));
+
+        assertEquals("testUser", captured.get().getName());
+    }
+
+    @Test
+    void testRevokedUser_IsNotAuthenticated() throws Exception {
+        setField("authoritiesInToken", true);
+        String token = jwtService.generateToken(user);
+
+        revocationService.revokeUser("testUser");
+        filter("Bearer " + token);
+
+        assertNull(captured.get());
+    }
+
+    @Test
+    void testDeniedToken_IsNotAuthenticatedButOtherTokensAre() throws Exception {
+        setField("authoritiesInToken", true);
+        String denied = jwtService.generateToken(user);
+        String other = jwtService.generateToken(user);
+        accessTokenDenylist.revoke(jwtService.parseAndValidate(denied).id(), jwtService.extractExpiration(denied));
+
+        filter("Bearer " + denied);
+        assertNull(captured.get());
+
+        filter("Bearer " + other);
+        assertEquals("testUser", captured.get().getName());
+    }
+
+    @Test
+    void testInvalidToken_ContinuesUnauthenticated() {
+        filter("Bearer not-a-jwt");
+
+        assertNull(captured.get());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    private void filter(String authorization) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/user")
+                .header("Authorization", authorization));
+        jwtAuthWebFilter.filter(exchange, chain).block(Duration.ofSeconds(5));
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = JwtService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(jwtService, value);
+    }
+}
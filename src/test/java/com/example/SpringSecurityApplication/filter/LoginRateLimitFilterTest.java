@@ -0,0 +1,81 @@
+package com.example.SpringSecurityApplication.filter;
+
+import com.example.SpringSecurityApplication.service.LoginRateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimitFilterTest {
+
+    private LoginRateLimiter loginRateLimiter;
+    private LoginRateLimitFilter filter;
+    private final AtomicInteger chainCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        loginRateLimiter = new LoginRateLimiter(true, 0.1, 2, 0.1, 2, 1, Duration.ofMinutes(1), Duration.ofMinutes(10),
+                1000, Duration.ofMinutes(15));
+        filter = new LoginRateLimitFilter(loginRateLimiter);
+    }
+
+    @Test
+    void testLogin_RejectedWithRetryAfterOnceTheIpBucketIsEmpty() throws Exception {
+        assertEquals(200, login("10.0.0.1", 200).getStatus());
+        assertEquals(200, login("10.0.0.1", 200).getStatus());
+
+        MockHttpServletResponse rejected = login("10.0.0.1", 200);
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("10", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(2, chainCalls.get());
+        assertEquals(200, login("10.0.0.2", 200).getStatus());
+    }
+
+    @Test
+    void testLogin_RepeatedUnauthorizedLocksTheIpOut() throws Exception {
+        login("10.0.0.1", 401);
+        assertNull(loginRateLimiter.tryAcquire(LoginRateLimiter.Scope.IP, "10.0.0.1"));
+
+        login("10.0.0.2", 401);
+        login("10.0.0.2", 401);
+
+        LoginRateLimiter.Rejection rejection = loginRateLimiter.tryAcquire(LoginRateLimiter.Scope.IP, "10.0.0.2");
+        assertNotNull(rejection);
+        assertTrue(rejection.locked());
+    }
+
+    @Test
+    void testOtherRequests_AreNotLimited() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/register");
+            request.setServletPath("/api/register");
+            request.setRemoteAddr("10.0.0.1");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, (req, res) -> chainCalls.incrementAndGet());
+            assertEquals(200, response.getStatus());
+        }
+        assertEquals(5, chainCalls.get());
+    }
+
+    private MockHttpServletResponse login(String ip, int status) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/login");
+        request.setServletPath("/api/login");
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            chainCalls.incrementAndGet();
+            ((HttpServletResponse) res).setStatus(status);
+        };
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
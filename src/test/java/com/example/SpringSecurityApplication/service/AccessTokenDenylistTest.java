@@ -0,0 +1,137 @@
+package com.example.SpringSecurityApplication.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class AccessTokenDenylistTest {
+
+    private static final Duration TOKEN_EXPIRATION = Duration.ofMinutes(1);
+
+    private MutableClock clock;
+    private SharedTokenStore sharedTokenStore;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-09-01T10:00:00Z"));
+        sharedTokenStore = spy(new LocalSharedTokenStore(1000));
+    }
+
+    @Test
+    void testNotRevokedToken_NeverConsultsStore() {
+        AccessTokenDenylist denylist = newDenylist();
+        denylist.revoke("revoked", expiresIn(TOKEN_EXPIRATION));
+        clearInvocations(sharedTokenStore);
+
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(denylist.isRevoked(claims(UUID.randomUUID().toString())));
+        }
+
+        verify(sharedTokenStore, atMost(30)).get(anyString());
+    }
+
+    @Test
+    void testRevokedToken_IsRevoked() {
+        AccessTokenDenylist denylist = newDenylist();
+
+        denylist.revoke("revoked", expiresIn(TOKEN_EXPIRATION));
+
+        assertTrue(denylist.isRevoked(claims("revoked")));
+    }
+
+    @Test
+    void testRevocation_ReachesOtherInstanceAfterRefresh() {
+        AccessTokenDenylist first = newDenylist();
+        AccessTokenDenylist second = newDenylist();
+
+        first.revoke("revoked", expiresIn(TOKEN_EXPIRATION));
+        assertFalse(second.isRevoked(claims("revoked")));
+
+        second.refresh();
+
+        assertTrue(second.isRevoked(claims("revoked")));
+    }
+
+    @Test
+    void testRefresh_ReadsOnlyRevocationsSinceTheLastPoll() {
+        AccessTokenDenylist first = newDenylist();
+        AccessTokenDenylist second = newDenylist();
+        first.revoke("early", expiresIn(TOKEN_EXPIRATION));
+        clock.advance(Duration.ofSeconds(20));
+        second.refresh();
+
+        clock.advance(Duration.ofSeconds(20));
+        first.revoke("late", expiresIn(TOKEN_EXPIRATION));
+        clearInvocations(sharedTokenStore);
+        second.refresh();
+
+        long since = clock.millis() - Duration.ofSeconds(25).toMillis();
+        verify(sharedTokenStore).readLog(AccessTokenDenylist.LOG_KEY, since);
+        assertEquals(List.of("late"), sharedTokenStore.readLog(AccessTokenDenylist.LOG_KEY, since));
+        assertTrue(second.isRevoked(claims("early")));
+        assertTrue(second.isRevoked(claims("late")));
+    }
+
+    @Test
+    void testEntries_AgeOutAfterTokenExpiry() {
+        AccessTokenDenylist denylist = newDenylist();
+        denylist.revoke("revoked", expiresIn(TOKEN_EXPIRATION));
+
+        clock.advance(TOKEN_EXPIRATION.plusSeconds(1));
+        denylist.refresh();
+        clock.advance(TOKEN_EXPIRATION.plusSeconds(1));
+        denylist.refresh();
+        clearInvocations(sharedTokenStore);
+        assertFalse(denylist.isRevoked(claims("revoked")));
+        verify(sharedTokenStore, never()).get(anyString());
+    }
+
+    @Test
+    void testAlreadyExpiredToken_IsNotStored() {
+        AccessTokenDenylist denylist = newDenylist();
+
+        denylist.revoke("expired", new Date(clock.millis() - 1));
+
+        verifyNoInteractions(sharedTokenStore);
+    }
+
+    @Test
+    void testBloomFilter_HasNoFalseNegativesAndBoundedFalsePositives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("member-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("member-" + i));
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+    }
+
+    private AccessTokenDenylist newDenylist() {
+        return new AccessTokenDenylist(sharedTokenStore, TOKEN_EXPIRATION, 1000, 0.01, clock);
+    }
+
+    private Date expiresIn(Duration duration) {
+        return new Date(clock.millis() + duration.toMillis());
+    }
+
+    private VerifiedClaims claims(String jti) {
+        return new VerifiedClaims(jti, "testUser", new Date(clock.millis()), expiresIn(TOKEN_EXPIRATION), null, null);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.example.SpringSecurityApplication.exception.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService callers = Executors.newFixedThreadPool(2);
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordEncoder delegate;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        delegate = mock(PasswordEncoder.class);
+        when(delegate.encode(any())).thenAnswer(invocation -> {
+            release.await();
+            return "encoded";
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void testEncode_RunsOnPoolAndRecordsTime() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofSeconds(5), meterRegistry);
+        release.countDown();
+
+        assertEquals("encoded", encoder.encode("password"));
+        assertEquals(1, meterRegistry.get("password.hash.duration").tag("operation", "encode").timer().count());
+        encoder.destroy();
+    }
+
+    @Test
+    void testEncode_RejectsImmediatelyWhenQueueIsFull() throws Exception {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofSeconds(5), meterRegistry);
+        callers.submit(() -> encoder.encode("first"));
+        callers.submit(() -> encoder.encode("second"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (encoder.getQueueDepth() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        long start = System.nanoTime();
+        PasswordHashingRejectedException exception = assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("third"));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(Duration.ofSeconds(5), exception.getRetryAfter());
+        assertEquals(1.0, meterRegistry.get("password.hash.rejected").counter().count());
+        assertEquals(1.0, meterRegistry.get("password.hash.queue.depth").gauge().value());
+        encoder.destroy();
+    }
+
+    @Test
+    void testEncode_RejectsWhenHashDoesNotFinishInTime() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofMillis(50), meterRegistry);
+
+        assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("slow"));
+        encoder.destroy();
+    }
+
+    @Test
+    void testUpgradeEncoding_StaysOnCallerThread() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofSeconds(5), meterRegistry);
+        when(delegate.upgradeEncoding("hash")).thenReturn(true);
+
+        assertTrue(encoder.upgradeEncoding("hash"));
+        encoder.destroy();
+    }
+}
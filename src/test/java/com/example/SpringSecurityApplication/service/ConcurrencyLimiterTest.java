@@ -0,0 +1,172 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.example.SpringSecurityApplication.service.ConcurrencyLimiter.Partition;
+import com.example.SpringSecurityApplication.service.ConcurrencyLimiter.Permit;
+import com.example.SpringSecurityApplication.service.ConcurrencyLimiter.Rule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimiterTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private ConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new ConcurrencyLimiter(true, new Rule(20, 4, 200, 1.5, 0.2, 600, 4),
+                new Rule(100, 4, 1000, 1.5, 0.2, 600, 4), nanoTime::get);
+    }
+
+    @Test
+    void testTryAcquire_ShedsOnceTheLimitIsInFlight() {
+        List<Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            permits.add(limiter.tryAcquire(Partition.EXPENSIVE));
+        }
+
+        assertNull(limiter.tryAcquire(Partition.EXPENSIVE));
+        assertNotNull(limiter.tryAcquire(Partition.CHEAP));
+
+        permits.get(0).release();
+        assertNotNull(limiter.tryAcquire(Partition.EXPENSIVE));
+    }
+
+    @Test
+    void testRelease_SlowerRequestsLowerTheLimit() {
+        runBatch(20, Duration.ofMillis(10));
+        int before = limiter.getLimit(Partition.EXPENSIVE);
+
+        runBatch(before, Duration.ofMillis(100));
+
+        assertTrue(limiter.getLimit(Partition.EXPENSIVE) < before);
+        assertEquals(0, limiter.getInFlight(Partition.EXPENSIVE));
+    }
+
+    @Test
+    void testRelease_LimitDoesNotGrowWhileMostlyIdle() {
+        for (int i = 0; i < 100; i++) {
+            runBatch(1, Duration.ofMillis(10));
+        }
+
+        assertEquals(20, limiter.getLimit(Partition.EXPENSIVE));
+    }
+
+    @Test
+    void testDisabled_NeverSheds() {
+        ConcurrencyLimiter disabled = new ConcurrencyLimiter(false, new Rule(1, 1, 1, 1.5, 0.2, 600, 4),
+                new Rule(1, 1, 1, 1.5, 0.2, 600, 4), nanoTime::get);
+
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(disabled.tryAcquire(Partition.EXPENSIVE));
+        }
+    }
+
+    /**
+     * Logins go through a repository backed by a pool of {@code CONNECTIONS} connections: a query takes its service
+     * time while no more than that many run at once, and proportionally longer as they queue for a connection.
+     * Requests with a valid token never reach it. Time advances in one millisecond steps; each step completes the
+     * finished requests and then lets new ones arrive.
+     */
+    @Test
+    void testSimulation_SlowRepositoryShedsLoginsButKeepsLatencyBounded() {
+        SlowRepository repository = new SlowRepository();
+
+        Phase fast = simulate(repository, 2, 20_000);
+        assertEquals(0, fast.rejected);
+        assertEquals(2, fast.maxLatency);
+
+        // Postgres slows down 25 times. It can now serve 10 connections / 50 ms = 200 logins a second while 2000 arrive.
+        Phase slow = simulate(repository, 50, 20_000);
+        assertTrue(slow.rejected > 30_000, "excess logins are shed: " + slow.rejected);
+        assertTrue(slow.admitted > 3_000, "the repository is kept busy: " + slow.admitted);
+        assertTrue(slow.maxLatency < 500, "admitted logins are not queued indefinitely: " + slow.maxLatency);
+        assertEquals(0, slow.cheapRejected);
+
+        Phase recovered = simulate(repository, 2, 20_000);
+        assertEquals(0, recovered.lateRejected);
+        assertEquals(2, recovered.maxLatency);
+    }
+
+    private Phase simulate(SlowRepository repository, long serviceMillis, int millis) {
+        Phase phase = new Phase();
+        for (int tick = 0; tick < millis; tick++) {
+            advance(Duration.ofMillis(1));
+            repository.completeDue(millis());
+            boolean late = tick >= millis / 2;
+            for (int i = 0; i < 2; i++) {
+                Permit permit = limiter.tryAcquire(Partition.EXPENSIVE);
+                if (permit == null) {
+                    phase.rejected++;
+                    phase.lateRejected += late ? 1 : 0;
+                    continue;
+                }
+                long latency = repository.query(millis(), serviceMillis, permit);
+                phase.admitted++;
+                if (late) {
+                    phase.maxLatency = Math.max(phase.maxLatency, latency);
+                }
+            }
+            Permit cheap = limiter.tryAcquire(Partition.CHEAP);
+            if (cheap == null) {
+                phase.cheapRejected++;
+            } else {
+                cheap.release();
+            }
+        }
+        return phase;
+    }
+
+    private static final class Phase {
+        long admitted;
+        long rejected;
+        long lateRejected;
+        long cheapRejected;
+        long maxLatency;
+    }
+
+    private static final class SlowRepository {
+        private static final int CONNECTIONS = 10;
+
+        private final PriorityQueue<Running> running = new PriorityQueue<>((a, b) -> Long.compare(a.doneAt, b.doneAt));
+
+        long query(long now, long serviceMillis, Permit permit) {
+            long latency = (long) Math.ceil(serviceMillis * Math.max(1.0, (running.size() + 1.0) / CONNECTIONS));
+            running.add(new Running(now + latency, permit));
+            return latency;
+        }
+
+        void completeDue(long now) {
+            while (!running.isEmpty() && running.peek().doneAt <= now) {
+                running.poll().permit.release();
+            }
+        }
+
+        private record Running(long doneAt, Permit permit) {
+        }
+    }
+
+    private void runBatch(int requests, Duration latency) {
+        List<Permit> permits = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            permits.add(limiter.tryAcquire(Partition.EXPENSIVE));
+        }
+        advance(latency);
+        permits.forEach(Permit::release);
+    }
+
+    private void advance(Duration duration) {
+        nanoTime.addAndGet(duration.toNanos());
+    }
+
+    private long millis() {
+        return Duration.ofNanos(nanoTime.get()).toMillis();
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.SpringSecurityApplication.service;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process server for the subset of the Redis protocol (RESP2) used by {@link RedisSharedTokenStore}:
+ * GET, MGET, SET with EX/PX/NX/XX, SETEX, PSETEX, DEL, INCR, EXPIRE, PEXPIRE, ZADD, ZRANGEBYSCORE, ZREMRANGEBYSCORE,
+ * plus the connection handshake commands.
+ * Commands are executed one at a time, so pipelined requests behave as on a real server.
+ */
+public class EmbeddedRespServer implements Closeable {
+
+    private final ServerSocket serverSocket;
+    private final Map<String, Value> data = new HashMap<>();
+    private final Map<String, Map<String, Double>> sortedSets = new HashMap<>();
+    private final List<Socket> clients = new ArrayList<>();
+
+    private EmbeddedRespServer(ServerSocket serverSocket) {
+        this.serverSocket = serverSocket;
+    }
+
+    public static EmbeddedRespServer start() throws IOException {
+        EmbeddedRespServer server = new EmbeddedRespServer(new ServerSocket(0, 50, InetAddress.getLoopbackAddress()));
+        Thread.ofPlatform().name("embedded-resp-acceptor").daemon(true).start(server::acceptLoop);
+        return server;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        synchronized (clients) {
+            for (Socket client : clients) {
+                client.close();
+            }
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                synchronized (clients) {
+                    clients.add(client);
+                }
+                Thread.ofVirtual().start(() -> serve(client));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket client) {
+        try (client;
+             InputStream in = new BufferedInputStream(client.getInputStream());
+             OutputStream out = new BufferedOutputStream(client.getOutputStream())) {
+            List<String> command;
+            while ((command = readCommand(in)) != null) {
+                String reply;
+                synchronized (data) {
+                    reply = execute(command);
+                }
+                out.write(reply.getBytes(StandardCharsets.UTF_8));
+                if (in.available() == 0) {
+                    out.flush();
+                }
+                if (command.get(0).equalsIgnoreCase("QUIT")) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // client went away
+        }
+    }
+
+    private String execute(List<String> command) {
+        String name = command.get(0).toUpperCase();
+        long now = System.currentTimeMillis();
+        return switch (name) {
+            case "PING" -> "+PONG\r\n";
+            case "CLIENT", "SELECT", "QUIT" -> "+OK\r\n";
+            case "FLUSHALL", "FLUSHDB" -> {
+                data.clear();
+                sortedSets.clear();
+                yield "+OK\r\n";
+            }
+            case "GET" -> bulk(read(command.get(1), now));
+            case "MGET" -> {
+                StringBuilder reply = new StringBuilder("*").append(command.size() - 1).append("\r\n");
+                for (String key : command.subList(1, command.size())) {
+                    reply.append(bulk(read(key, now)));
+                }
+                yield reply.toString();
+            }
+            case "SET" -> set(command, now);
+            case "SETEX", "PSETEX" -> {
+                long amount = Long.parseLong(command.get(2));
+                data.put(command.get(1), new Value(command.get(3), now + (name.equals("SETEX") ? amount * 1000 : amount)));
+                yield "+OK\r\n";
+            }
+            case "DEL" -> {
+                int deleted = 0;
+                for (String key : command.subList(1, command.size())) {
+                    if (read(key, now) != null) {
+                        deleted++;
+                    }
+                    data.remove(key);
+                }
+                yield integer(deleted);
+            }
+            case "INCR" -> {
+                String key = command.get(1);
+                String current = read(key, now);
+                long next = (current == null ? 0 : Long.parseLong(current)) + 1;
+                long expiresAt = current == null ? 0 : data.get(key).expiresAt();
+                data.put(key, new Value(Long.toString(next), expiresAt));
+                yield integer(next);
+            }
+            case "EXPIRE", "PEXPIRE" -> {
+                String key = command.get(1);
+                String current = read(key, now);
+                if (current == null) {
+                    yield integer(0);
+                }
+                long amount = Long.parseLong(command.get(2));
+                data.put(key, new Value(current, now + (name.equals("EXPIRE") ? amount * 1000 : amount)));
+                yield integer(1);
+            }
+            case "ZADD" -> {
+                Map<String, Double> members = sortedSets.computeIfAbsent(command.get(1), k -> new HashMap<>());
+                int added = 0;
+                for (int i = 2; i + 1 < command.size(); i += 2) {
+                    if (members.put(command.get(i + 1), score(command.get(i))) == null) {
+                        added++;
+                    }
+                }
+                yield integer(added);
+            }
+            case "ZRANGEBYSCORE" -> {
+                List<String> members = membersInRange(command);
+                StringBuilder reply = new StringBuilder("*").append(members.size()).append("\r\n");
+                members.forEach(member -> reply.append(bulk(member)));
+                yield reply.toString();
+            }
+            case "ZREMRANGEBYSCORE" -> {
+                List<String> members = membersInRange(command);
+                members.forEach(sortedSets.get(command.get(1))::remove);
+                yield integer(members.size());
+            }
+            default -> "-ERR unknown command '" + command.get(0) + "'\r\n";
+        };
+    }
+
+    private String set(List<String> command, long now) {
+        String key = command.get(1);
+        long expiresAt = 0;
+        boolean onlyIfAbsent = false;
+        boolean onlyIfPresent = false;
+        for (int i = 3; i < command.size(); i++) {
+            switch (command.get(i).toUpperCase()) {
+                case "EX" -> expiresAt = now + Long.parseLong(command.get(++i)) * 1000;
+                case "PX" -> expiresAt = now + Long.parseLong(command.get(++i));
+                case "NX" -> onlyIfAbsent = true;
+                case "XX" -> onlyIfPresent = true;
+                default -> {
+                    return "-ERR syntax error\r\n";
+                }
+            }
+        }
+        boolean exists = read(key, now) != null;
+        if ((onlyIfAbsent && exists) || (onlyIfPresent && !exists)) {
+            return "$-1\r\n";
+        }
+        data.put(key, new Value(command.get(2), expiresAt));
+        return "+OK\r\n";
+    }
+
+    private List<String> membersInRange(List<String> command) {
+        String min = command.get(2);
+        String max = command.get(3);
+        return sortedSets.getOrDefault(command.get(1), Map.of()).entrySet().stream()
+                .filter(member -> above(member.getValue(), min) && below(member.getValue(), max))
+                .sorted(Map.Entry.<String, Double>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static boolean above(double value, String bound) {
+        return bound.startsWith("(") ? value > score(bound.substring(1)) : value >= score(bound);
+    }
+
+    private static boolean below(double value, String bound) {
+        return bound.startsWith("(") ? value < score(bound.substring(1)) : value <= score(bound);
+    }
+
+    private static double score(String value) {
+        return switch (value.toLowerCase()) {
+            case "+inf", "inf" -> Double.POSITIVE_INFINITY;
+            case "-inf" -> Double.NEGATIVE_INFINITY;
+            default -> Double.parseDouble(value);
+        };
+    }
+
+    private String read(String key, long now) {
+        Value value = data.get(key);
+        if (value == null) {
+            return null;
+        }
+        if (value.expiresAt() != 0 && value.expiresAt() <= now) {
+            data.remove(key);
+            return null;
+        }
+        return value.value();
+    }
+
+    private static List<String> readCommand(InputStream in) throws IOException {
+        String line = readLine(in);
+        if (line == null) {
+            return null;
+        }
+        if (!line.startsWith("*")) {
+            return List.of(line.trim().split("\\s+"));
+        }
+        int count = Integer.parseInt(line.substring(1));
+        List<String> command = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = Integer.parseInt(readLine(in).substring(1));
+            byte[] bytes = in.readNBytes(length);
+            in.readNBytes(2);
+            command.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return command;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\r') {
+                in.read();
+                return line.toString();
+            }
+            line.append((char) b);
+        }
+        return null;
+    }
+
+    private static String bulk(String value) {
+        if (value == null) {
+            return "$-1\r\n";
+        }
+        return "$" + value.getBytes(StandardCharsets.UTF_8).length + "\r\n" + value + "\r\n";
+    }
+
+    private static String integer(long value) {
+        return ":" + value + "\r\n";
+    }
+
+    private record Value(String value, long expiresAt) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.SpringSecurityApplication.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrantedAuthoritiesTest {
+
+    @Test
+    void testSameRoles_ShareOneList() {
+        List<GrantedAuthority> first = GrantedAuthorities.of("USER,ADMIN");
+        List<GrantedAuthority> second = GrantedAuthorities.of(new String("USER,ADMIN"));
+
+        assertSame(first, second);
+        assertEquals(AuthorityUtils.createAuthorityList("USER", "ADMIN"), first);
+    }
+
+    @Test
+    void testList_IsImmutable() {
+        List<GrantedAuthority> authorities = GrantedAuthorities.of("USER");
+
+        assertThrows(UnsupportedOperationException.class, authorities::clear);
+    }
+
+    @Test
+    void testEmptySegments_AreSkipped() {
+        assertEquals(AuthorityUtils.createAuthorityList("USER", "ADMIN"), GrantedAuthorities.of("USER,,ADMIN,"));
+    }
+
+    @Test
+    void testPrincipalsWithSameRoles_ShareAuthorities() {
+        VerifiedClaims claims = new VerifiedClaims("jti", "testUser", null, null, "USER,ADMIN", 1L);
+
+        assertSame(UserInfoDetails.fromClaims(claims).getAuthorities(), UserInfoDetails.fromClaims(claims).getAuthorities());
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.example.SpringSecurityApplication.exception.RefreshTokenStoreBacklogException;
+import com.example.SpringSecurityApplication.model.RefreshToken;
+import com.example.SpringSecurityApplication.model.UserInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class InMemoryRefreshTokenStoreTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InMemoryRefreshTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        store = new InMemoryRefreshTokenStore(jdbcTemplate, transactionManager, 4, 100, 1000, Duration.ofMillis(10),
+                Duration.ofMillis(200), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void testSaveAndFind() {
+        RefreshToken token = token(UUID.randomUUID(), Instant.now().plus(Duration.ofMinutes(1)));
+
+        store.save(token);
+
+        Optional<RefreshToken> found = store.findByTokenHash(token.getTokenHash());
+        assertTrue(found.isPresent());
+        assertEquals(token.getFamilyId(), found.get().getFamilyId());
+        assertEquals(42L, found.get().getUserInfo().getId());
+        assertEquals("testUser", found.get().getUserInfo().getUsername());
+        assertNull(found.get().getToken());
+    }
+
+    @Test
+    void testConsume_OnlyOnce() {
+        RefreshToken token = token(UUID.randomUUID(), Instant.now().plus(Duration.ofMinutes(1)));
+        store.save(token);
+
+        assertTrue(store.consume(token));
+        assertFalse(store.consume(token));
+        assertTrue(store.findByTokenHash(token.getTokenHash()).isEmpty());
+    }
+
+    @Test
+    void testFlush_InsertThenDeleteInSameBatchNeverReachesDatabase() {
+        RefreshToken token = token(UUID.randomUUID(), Instant.now().plus(Duration.ofMinutes(1)));
+        store.save(token);
+        store.consume(token);
+
+        store.flush();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testFlush_WritesInsertsAndDeletesInBatches() {
+        RefreshToken first = token(UUID.randomUUID(), Instant.now().plus(Duration.ofMinutes(1)));
+        RefreshToken second = token(UUID.randomUUID(), Instant.now().plus(Duration.ofMinutes(1)));
+        store.save(first);
+        store.save(second);
+
+        store.flush();
+        store.consume(first);
+        store.flush();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(InMemoryRefreshTokenStore.INSERT_SQL), argThat((List<Object[]> args) -> args.size() == 2));
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(InMemoryRefreshTokenStore.DELETE_SQL),
+                argThat((List<Object[]> args) -> args.size() == 1 && first.getTokenHash().equals(args.get(0)[0])));
+    }
+
+    @Test
+    void testFlush_FailedBatchIsRetried() {
+        when(jdbcTemplate.batchUpdate(eq(InMemoryRefreshTokenStore.INSERT_SQL), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("database is down"))
+                .thenReturn(new int[]{1});
+        store.save(token(UUID.randomUUID(), Instant.now().plus(Duration.ofMinutes(1))));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> store.flush());
+        store.flush();
+        store.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(InMemoryRefreshTokenStore.INSERT_SQL), anyList());
+    }
+
+    @Test
+    void testFlush_RejectedRowIsDroppedAndTheRestOfTheBatchWritten() {
+        RefreshToken good = token(UUID.randomUUID(), Instant.now().plus(Duration.ofMinutes(1)));
+        RefreshToken bad = token(UUID.randomUUID(), Instant.now().plus(Duration.ofMinutes(1)));
+        when(jdbcTemplate.batchUpdate(eq(InMemoryRefreshTokenStore.INSERT_SQL), anyList())).thenAnswer(invocation -> {
+            List<Object[]> args = invocation.getArgument(1);
+            if (args.stream().anyMatch(row -> bad.getTokenHash().equals(row[0]))) {
+                throw new DataIntegrityViolationException("user does not exist");
+            }
+            return new int[args.size()];
+        });
+        store.save(good);
+        store.save(bad);
+
+        store.flush();
+        store.flush();
+
+        verify(jdbcTemplate, times(3)).batchUpdate(eq(InMemoryRefreshTokenStore.INSERT_SQL), anyList());
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(InMemoryRefreshTokenStore.INSERT_SQL),
+                argThat((List<Object[]> args) -> args.size() == 1 && good.getTokenHash().equals(args.get(0)[0])));
+    }
+
+    @Test
+    void testSave_RejectedOnceTheQueueStaysFull() {
+        InMemoryRefreshTokenStore full = new InMemoryRefreshTokenStore(jdbcTemplate, transactionManager, 4, 100, 1,
+                Duration.ofMillis(10), Duration.ofMillis(200), Duration.ofSeconds(30));
+        RefreshToken first = token(UUID.randomUUID(), Instant.now().plus(Duration.ofMinutes(1)));
+        RefreshToken second = token(UUID.randomUUID(), Instant.now().plus(Duration.ofMinutes(1)));
+        full.save(first);
+
+        assertThrows(RefreshTokenStoreBacklogException.class, () -> full.save(second));
+        assertTrue(full.findByTokenHash(second.getTokenHash()).isEmpty());
+        assertTrue(full.consume(first));
+    }
+
+    @Test
+    void testDeleteFamily_RemovesLiveToken() {
+        UUID familyId = UUID.randomUUID();
+        RefreshToken token = token(familyId, Instant.now().plus(Duration.ofMinutes(1)));
+        store.save(token);
+
+        assertEquals(1, store.deleteFamily(familyId));
+        assertTrue(store.findByTokenHash(token.getTokenHash()).isEmpty());
+
+        store.flush();
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(InMemoryRefreshTokenStore.DELETE_FAMILY_SQL), anyList());
+        verify(jdbcTemplate, never()).batchUpdate(eq(InMemoryRefreshTokenStore.INSERT_SQL), anyList());
+    }
+
+    @Test
+    void testEvictExpired_RemovesOnlyExpiredTokens() {
+        RefreshToken expired = token(UUID.randomUUID(), Instant.now().minus(Duration.ofMinutes(1)));
+        RefreshToken active = token(UUID.randomUUID(), Instant.now().plus(Duration.ofMinutes(1)));
+        store.save(expired);
+        store.save(active);
+
+        store.evictExpired();
+
+        assertEquals(1, store.size());
+        assertTrue(store.findByTokenHash(expired.getTokenHash()).isEmpty());
+        assertTrue(store.findByTokenHash(active.getTokenHash()).isPresent());
+    }
+
+    private static RefreshToken token(UUID familyId, Instant expiryDate) {
+        String token = UUID.randomUUID().toString();
+        return RefreshToken.builder()
+                .token(token)
+                .tokenHash(TokenDigest.sha256Hex(token))
+                .familyId(familyId)
+                .expiryDate(expiryDate)
+                .userInfo(UserInfo.builder().id(42L).username("testUser").build())
+                .build();
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.SpringSecurityApplication.service;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "AAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8gISIjJCUmJygpKissLS4vMDEyMzQ1Njc4OTo7PD0+Pw==";
+    private static final String OTHER_SECRET = "Pz49PDs6OTg3NjU0MzIxMC8uLSwrKikoJyYlJCMiISAfHh0cGxoZGBcWFRQTEhEQDw4NDAsKCQgHBgUEAwIBAA==";
+
+    private JwtService jwtService;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jwtService = new JwtService();
+        meterRegistry = new SimpleMeterRegistry();
+        setField("meterRegistry", meterRegistry);
+        setField("jwtSecret", SECRET);
+        setField("tokenExpiration", Duration.ofMinutes(1));
+        jwtService.init();
+    }
+
+    @Test
+    void testParseAndValidate_ValidToken() {
+        String token = jwtService.generateToken("testUser");
+
+        VerifiedClaims claims = jwtService.parseAndValidate(token);
+
+        assertEquals("testUser", claims.username());
+        assertFalse(claims.isExpired());
+        assertTrue(claims.expiration().after(claims.issuedAt()));
+    }
+
+    @Test
+    void testParseAndValidate_ExpiredToken() throws Exception {
+        setField("tokenExpiration", Duration.ofMillis(-1000));
+        String token = jwtService.generateToken("testUser");
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.parseAndValidate(token));
+    }
+
+    @Test
+    void testSignAndVerify_AreTimed() {
+        String token = jwtService.generateToken("testUser");
+        jwtService.parseAndValidate(token);
+        assertThrows(JwtException.class, () -> jwtService.parseAndValidate(token + "x"));
+
+        assertEquals(1, meterRegistry.get("jwt.sign").timer().count());
+        assertEquals(1, meterRegistry.get("jwt.verify").tags("algorithm", "HS256", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("jwt.verify").tags("algorithm", "HS256", "outcome", "failure").timer().count());
+    }
+
+    @Test
+    void testReloadSecret_InvalidatesOldTokens() {
+        String token = jwtService.generateToken("testUser");
+
+        jwtService.reloadSecret(OTHER_SECRET);
+
+        assertThrows(JwtException.class, () -> jwtService.parseAndValidate(token));
+        assertEquals("testUser", jwtService.parseAndValidate(jwtService.generateToken("testUser")).username());
+    }
+
+    @Test
+    void testEs256_TokenCarriesActiveKid() {
+        KeyPair keyPair = SigningKeyRing.generateKeyPair();
+        String kid = SigningKeyRing.keyId(keyPair.getPublic());
+        jwtService.reloadKeyRing(SigningKeyRing.of(kid, keyPair.getPrivate(), Map.of(kid, keyPair.getPublic())));
+
+        String token = jwtService.generateToken("testUser");
+
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))), StandardCharsets.UTF_8);
+        assertTrue(header.contains("\"alg\":\"ES256\""));
+        assertTrue(header.contains("\"kid\":\"" + kid + "\""));
+        assertEquals("testUser", jwtService.parseAndValidate(token).username());
+    }
+
+    @Test
+    void testEs256_OverlappingRotation() {
+        KeyPair oldKey = SigningKeyRing.generateKeyPair();
+        KeyPair newKey = SigningKeyRing.generateKeyPair();
+        jwtService.reloadKeyRing(SigningKeyRing.of("old", oldKey.getPrivate(), Map.of("old", oldKey.getPublic())));
+        String oldToken = jwtService.generateToken("testUser");
+
+        jwtService.reloadKeyRing(SigningKeyRing.of("new", newKey.getPrivate(),
+                Map.of("old", oldKey.getPublic(), "new", newKey.getPublic())));
+        String newToken = jwtService.generateToken("testUser");
+
+        assertEquals("testUser", jwtService.parseAndValidate(oldToken).username());
+        assertEquals("testUser", jwtService.parseAndValidate(newToken).username());
+
+        jwtService.reloadKeyRing(SigningKeyRing.of("new", newKey.getPrivate(), Map.of("new", newKey.getPublic())));
+
+        assertThrows(JwtException.class, () -> jwtService.parseAndValidate(oldToken));
+        assertEquals("testUser", jwtService.parseAndValidate(newToken).username());
+    }
+
+    @Test
+    void testEs256_RejectsHs256Tokens() {
+        String hmacToken = jwtService.generateToken("testUser");
+
+        jwtService.reloadKeyRing(SigningKeyRing.generate());
+
+        assertThrows(JwtException.class, () -> jwtService.parseAndValidate(hmacToken));
+    }
+
+    @Test
+    void testEs256_LoadsKeyRingFromDirectory(@TempDir Path keyDir) throws Exception {
+        KeyPair active = SigningKeyRing.generateKeyPair();
+        KeyPair retired = SigningKeyRing.generateKeyPair();
+        writePem(keyDir.resolve("k2.key.pem"), "PRIVATE KEY", active.getPrivate().getEncoded());
+        writePem(keyDir.resolve("k2.pub.pem"), "PUBLIC KEY", active.getPublic().getEncoded());
+        writePem(keyDir.resolve("k1.pub.pem"), "PUBLIC KEY", retired.getPublic().getEncoded());
+        Files.writeString(keyDir.resolve("active"), "k2\n");
+        setField("signingAlgorithm", "ES256");
+        setField("keyDir", keyDir.toString());
+
+        jwtService.init();
+
+        SigningKeyRing keyRing = jwtService.keyRing();
+        assertEquals("k2", keyRing.activeKid());
+        assertEquals(retired.getPublic(), keyRing.verificationKey("k1"));
+        assertTrue(keyRing.jwksJson().contains("\"kid\":\"k1\""));
+        assertEquals("testUser", jwtService.parseAndValidate(jwtService.generateToken("testUser")).username());
+    }
+
+    @Test
+    void testEs256_ReloadOnlyReplacesAChangedKeyRing(@TempDir Path keyDir) throws Exception {
+        KeyPair first = SigningKeyRing.generateKeyPair();
+        KeyPair second = SigningKeyRing.generateKeyPair();
+        writePem(keyDir.resolve("k1.key.pem"), "PRIVATE KEY", first.getPrivate().getEncoded());
+        writePem(keyDir.resolve("k1.pub.pem"), "PUBLIC KEY", first.getPublic().getEncoded());
+        Files.writeString(keyDir.resolve("active"), "k1\n");
+        setField("signingAlgorithm", "ES256");
+        setField("keyDir", keyDir.toString());
+        jwtService.init();
+        SigningKeyRing loaded = jwtService.keyRing();
+
+        jwtService.reloadKeyRingFromDirectory();
+        assertSame(loaded, jwtService.keyRing());
+
+        writePem(keyDir.resolve("k2.key.pem"), "PRIVATE KEY", second.getPrivate().getEncoded());
+        writePem(keyDir.resolve("k2.pub.pem"), "PUBLIC KEY", second.getPublic().getEncoded());
+        Files.writeString(keyDir.resolve("active"), "k2\n");
+        jwtService.reloadKeyRingFromDirectory();
+        assertEquals("k2", jwtService.keyRing().activeKid());
+        assertEquals(first.getPublic(), jwtService.keyRing().verificationKey("k1"));
+    }
+
+    @Test
+    void testInit_RejectsUnknownSigningAlgorithm() throws Exception {
+        setField("signingAlgorithm", "RS256");
+
+        assertThrows(IllegalStateException.class, () -> jwtService.init());
+    }
+
+    private static void writePem(Path file, String type, byte[] encoded) throws Exception {
+        Files.writeString(file, "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder().encodeToString(encoded)
+                + "\n-----END " + type + "-----\n");
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = JwtService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(jwtService, value);
+    }
+}
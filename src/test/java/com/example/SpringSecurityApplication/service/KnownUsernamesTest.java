@@ -0,0 +1,127 @@
+package com.example.SpringSecurityApplication.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Two instances share one in-memory H2 database and one {@link LocalSharedTokenStore}, standing in for two nodes
+ * behind the same Postgres and Redis.
+ */
+class KnownUsernamesTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+    private final LocalSharedTokenStore sharedTokenStore = new LocalSharedTokenStore(1000);
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private KnownUsernames knownUsernames;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL UNIQUE)");
+        jdbcTemplate.update("INSERT INTO users VALUES (1, 'alice'), (2, 'erin')");
+        knownUsernames = newInstance();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    private KnownUsernames newInstance() {
+        return new KnownUsernames(jdbcTemplate, transactionManager, sharedTokenStore, true, 1000, 0.01,
+                Duration.ofMinutes(1), clock);
+    }
+
+    @Test
+    void testMightExist_EveryNameUntilLoaded() {
+        assertTrue(knownUsernames.mightExist("mallory"));
+    }
+
+    @Test
+    void testLoad_UnknownNamesAreRejected() {
+        knownUsernames.load();
+
+        assertTrue(knownUsernames.mightExist("alice"));
+        assertTrue(knownUsernames.mightExist("erin"));
+        assertFalse(knownUsernames.mightExist("mallory"));
+    }
+
+    @Test
+    void testLoad_FailureKeepsEveryNameAllowed() {
+        jdbcTemplate.execute("DROP TABLE users");
+
+        knownUsernames.load();
+
+        assertTrue(knownUsernames.mightExist("mallory"));
+    }
+
+    @Test
+    void testAdd_ReachesOtherInstancesOnTheirNextPoll() {
+        KnownUsernames other = newInstance();
+        knownUsernames.load();
+        other.load();
+
+        clock.advance(Duration.ofMillis(10));
+        knownUsernames.add("newbie");
+
+        assertTrue(knownUsernames.mightExist("newbie"));
+        assertFalse(other.mightExist("newbie"));
+        other.poll();
+        assertTrue(other.mightExist("newbie"));
+    }
+
+    @Test
+    void testAddAll_PublishesTheBatchInOneAppend() {
+        LocalSharedTokenStore store = spy(sharedTokenStore);
+        KnownUsernames instance = new KnownUsernames(jdbcTemplate, transactionManager, store, true, 1000, 0.01,
+                Duration.ofMinutes(1), clock);
+        instance.load();
+
+        instance.addAll(List.of("newbie", "rookie"));
+
+        assertTrue(instance.mightExist("newbie"));
+        assertTrue(instance.mightExist("rookie"));
+        verify(store).addToLog(eq(KnownUsernames.LOG_KEY), eq(List.of("newbie", "rookie")), anyLong(), anyLong());
+        assertEquals(2, sharedTokenStore.readLog(KnownUsernames.LOG_KEY, 0).size());
+    }
+
+    @Test
+    void testRebuild_ForgetsDeletedUsers() {
+        knownUsernames.load();
+        jdbcTemplate.update("DELETE FROM users WHERE name = 'erin'");
+
+        knownUsernames.rebuild();
+
+        assertTrue(knownUsernames.mightExist("alice"));
+        assertFalse(knownUsernames.mightExist("erin"));
+    }
+
+    @Test
+    void testDisabled_NeverLoadsOrRejects() {
+        KnownUsernames disabled = new KnownUsernames(jdbcTemplate, transactionManager, sharedTokenStore, false, 1000,
+                0.01, Duration.ofMinutes(1), clock);
+
+        disabled.load();
+        disabled.add("newbie");
+
+        assertTrue(disabled.mightExist("mallory"));
+        assertTrue(sharedTokenStore.readLog(KnownUsernames.LOG_KEY, 0).isEmpty());
+    }
+}
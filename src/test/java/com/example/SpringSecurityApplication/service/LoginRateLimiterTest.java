@@ -0,0 +1,155 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.example.SpringSecurityApplication.service.LoginRateLimiter.Rejection;
+import com.example.SpringSecurityApplication.service.LoginRateLimiter.Rule;
+import com.example.SpringSecurityApplication.service.LoginRateLimiter.Scope;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterTest {
+
+    private MutableClock clock;
+    private LoginRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        limiter = new LoginRateLimiter(true, new Rule(10, 3), new Rule(1, 2), 3, Duration.ofSeconds(1),
+                Duration.ofSeconds(5), 1000, Duration.ofMinutes(15), clock);
+    }
+
+    @Test
+    void testTryAcquire_AllowsBurstThenRefillsAtRate() {
+        for (int i = 0; i < 3; i++) {
+            assertNull(limiter.tryAcquire(Scope.IP, "10.0.0.1"));
+        }
+
+        Rejection rejection = limiter.tryAcquire(Scope.IP, "10.0.0.1");
+        assertNotNull(rejection);
+        assertFalse(rejection.locked());
+        assertEquals(100, rejection.retryAfterMillis());
+        assertNull(limiter.tryAcquire(Scope.IP, "10.0.0.2"));
+
+        clock.advance(Duration.ofMillis(100));
+        assertNull(limiter.tryAcquire(Scope.IP, "10.0.0.1"));
+        assertNotNull(limiter.tryAcquire(Scope.IP, "10.0.0.1"));
+    }
+
+    @Test
+    void testTryAcquire_ScopesAreIndependent() {
+        assertNull(limiter.tryAcquire(Scope.USERNAME, "alice"));
+        assertNull(limiter.tryAcquire(Scope.USERNAME, "alice"));
+        assertNotNull(limiter.tryAcquire(Scope.USERNAME, "alice"));
+
+        assertNull(limiter.tryAcquire(Scope.IP, "alice"));
+    }
+
+    @Test
+    void testLoginFailed_LocksOutProgressivelyAfterFreeFailures() {
+        for (int i = 0; i < 3; i++) {
+            limiter.loginFailed(Scope.IP_USERNAME, "10.0.0.1 alice");
+        }
+        assertNull(limiter.tryAcquire(Scope.IP_USERNAME, "10.0.0.1 alice"));
+
+        limiter.loginFailed(Scope.IP_USERNAME, "10.0.0.1 alice");
+        Rejection first = limiter.tryAcquire(Scope.IP_USERNAME, "10.0.0.1 alice");
+        assertTrue(first.locked());
+        assertEquals(1000, first.retryAfterMillis());
+
+        clock.advance(Duration.ofSeconds(1));
+        limiter.loginFailed(Scope.IP_USERNAME, "10.0.0.1 alice");
+        assertEquals(2000, limiter.tryAcquire(Scope.IP_USERNAME, "10.0.0.1 alice").retryAfterMillis());
+
+        for (int i = 0; i < 10; i++) {
+            limiter.loginFailed(Scope.IP_USERNAME, "10.0.0.1 alice");
+        }
+        assertEquals(5000, limiter.tryAcquire(Scope.IP_USERNAME, "10.0.0.1 alice").retryAfterMillis());
+    }
+
+    @Test
+    void testLoginSucceeded_ClearsLockout() {
+        for (int i = 0; i < 5; i++) {
+            limiter.loginFailed(Scope.IP, "10.0.0.1");
+        }
+        assertTrue(limiter.tryAcquire(Scope.IP, "10.0.0.1").locked());
+
+        limiter.loginSucceeded(Scope.IP, "10.0.0.1");
+
+        assertNull(limiter.tryAcquire(Scope.IP, "10.0.0.1"));
+    }
+
+    @Test
+    void testLoginFailed_LockoutDoesNotReachOtherClientsOfTheUsername() {
+        String attacker = LoginRateLimiter.ipUsernameKey("203.0.113.7", "alice");
+        for (int i = 0; i < 5; i++) {
+            limiter.loginFailed(Scope.IP_USERNAME, attacker);
+        }
+
+        assertTrue(limiter.tryAcquire(Scope.IP_USERNAME, attacker).locked());
+        assertNull(limiter.tryAcquire(Scope.IP_USERNAME, LoginRateLimiter.ipUsernameKey("198.51.100.2", "alice")));
+        assertNull(limiter.tryAcquire(Scope.USERNAME, "alice"));
+        assertThrows(IllegalArgumentException.class, () -> limiter.loginFailed(Scope.USERNAME, "alice"));
+    }
+
+    @Test
+    void testIpUsernameKey_FallsBackToTheUsername() {
+        assertEquals("203.0.113.7 alice", LoginRateLimiter.ipUsernameKey("203.0.113.7", "alice"));
+        assertEquals("alice", LoginRateLimiter.ipUsernameKey(null, "alice"));
+        assertNull(LoginRateLimiter.ipUsernameKey("203.0.113.7", null));
+    }
+
+    @Test
+    void testTryAcquire_ConcurrentAttemptsNeverExceedBurst() throws Exception {
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> attempts = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                attempts.add(executor.submit(() -> {
+                    if (limiter.tryAcquire(Scope.IP, "10.0.0.1") == null) {
+                        allowed.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> attempt : attempts) {
+                attempt.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(3, allowed.get());
+    }
+
+    @Test
+    void testRejectionsAreCounted() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        limiter.bindTo(meterRegistry);
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire(Scope.IP, "10.0.0.1");
+        }
+
+        assertEquals(1, meterRegistry.get("auth.login.throttled").tags("scope", "ip", "reason", "rate").functionCounter().count());
+    }
+
+    @Test
+    void testDisabled_AllowsEverything() {
+        LoginRateLimiter disabled = new LoginRateLimiter(false, new Rule(1, 1), new Rule(1, 1), 0, Duration.ofSeconds(1),
+                Duration.ofSeconds(1), 10, Duration.ofMinutes(1), clock);
+        disabled.loginFailed(Scope.IP_USERNAME, "alice");
+
+        assertNull(disabled.tryAcquire(Scope.USERNAME, "alice"));
+        assertNull(disabled.tryAcquire(Scope.USERNAME, "alice"));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.example.SpringSecurityApplication.model.UserInfo;
+import com.example.SpringSecurityApplication.repository.UserInfoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PasswordUpgradeServiceTest {
+
+    @Mock
+    private UserInfoRepository userInfoRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @InjectMocks
+    private PasswordUpgradeService passwordUpgradeService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testUpgrade_ReencodesOutdatedHash() {
+        UserInfo user = UserInfo.builder().id(1L).username("testUser").password("$2a$10$old").roles("USER").tokenVersion(2).build();
+        when(userInfoRepository.findByUsername("testUser")).thenReturn(Optional.of(user));
+        when(passwordEncoder.encode("password")).thenReturn("{bcrypt}$2a$12$new");
+
+        passwordUpgradeService.upgrade("testUser", "password", "$2a$10$old");
+
+        assertEquals("{bcrypt}$2a$12$new", user.getPassword());
+        assertEquals(2, user.getTokenVersion());
+        verify(userInfoRepository, times(1)).save(user);
+    }
+
+    @Test
+    void testPasswordOrRolesChange_BumpsTokenVersion() {
+        UserInfo user = UserInfo.builder().id(1L).username("testUser").password("old").roles("USER").build();
+
+        user.setPassword("new");
+        user.setRoles("USER");
+        user.setRoles("USER,ADMIN");
+
+        assertEquals(2, user.getTokenVersion());
+    }
+
+    @Test
+    void testUpgrade_SkipsWhenPasswordChangedConcurrently() {
+        UserInfo user = UserInfo.builder().username("testUser").password("{bcrypt}$2a$12$changed").roles("USER").build();
+        when(userInfoRepository.findByUsername("testUser")).thenReturn(Optional.of(user));
+
+        passwordUpgradeService.upgrade("testUser", "password", "$2a$10$old");
+
+        verify(passwordEncoder, never()).encode(any());
+        verify(userInfoRepository, never()).save(any());
+    }
+
+    @Test
+    void testNeedsUpgrade_DelegatesToEncoder() {
+        when(passwordEncoder.upgradeEncoding("$2a$10$old")).thenReturn(true);
+
+        assertTrue(passwordUpgradeService.needsUpgrade("$2a$10$old"));
+        assertFalse(passwordUpgradeService.needsUpgrade(null));
+    }
+}
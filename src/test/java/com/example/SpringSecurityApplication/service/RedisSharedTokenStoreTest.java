@@ -0,0 +1,81 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.example.SpringSecurityApplication.config.SharedTokenStoreConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisSharedTokenStoreTest {
+
+    private EmbeddedRespServer server;
+    private LettuceConnectionFactory connectionFactory;
+    private RedisSharedTokenStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = EmbeddedRespServer.start();
+        connectionFactory = SharedTokenStoreConfig.redisConnectionFactory("localhost", server.getPort(), Duration.ofSeconds(2), 4);
+        connectionFactory.afterPropertiesSet();
+        store = new RedisSharedTokenStore(new StringRedisTemplate(connectionFactory));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connectionFactory.destroy();
+        server.close();
+    }
+
+    @Test
+    void testPutGet() {
+        store.put("key", "value", Duration.ofMinutes(1));
+
+        assertEquals("value", store.get("key"));
+        assertNull(store.get("other"));
+    }
+
+    @Test
+    void testPut_ExpiresAfterTtl() throws Exception {
+        store.put("key", "value", Duration.ofMillis(50));
+
+        Thread.sleep(100);
+
+        assertNull(store.get("key"));
+    }
+
+    @Test
+    void testGetAll_SkipsMissingKeys() {
+        store.put("a", "1", Duration.ofMinutes(1));
+        store.put("c", "3", Duration.ofMinutes(1));
+
+        Map<String, String> values = store.getAll(List.of("a", "b", "c"));
+
+        assertEquals(Map.of("a", "1", "c", "3"), values);
+    }
+
+    @Test
+    void testLog_ReadsLiveMembersAndTrimsOldOnes() {
+        store.addToLog("log", "old", 100, 0);
+        store.addToLog("log", "current", 300, 0);
+        store.addToLog("log", "new", 500, 200);
+
+        assertEquals(List.of("current", "new"), store.readLog("log", 200));
+        assertEquals(List.of("new"), store.readLog("log", 300));
+    }
+
+    @Test
+    void testLog_AddsABatchAndTrimsOnce() {
+        store.addToLog("log", "old", 100, 0);
+
+        store.addToLog("log", List.of("bob", "alice"), 300, 200);
+
+        assertEquals(List.of("alice", "bob"), store.readLog("log", 0));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.example.SpringSecurityApplication.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenPurgeJobTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testPurge_DeletesInBatchesUntilPartialBatch() {
+        Instant now = Instant.now();
+        when(refreshTokenRepository.deleteExpiredBatch(now, 100)).thenReturn(100, 100, 42);
+        RefreshTokenPurgeJob job = new RefreshTokenPurgeJob(refreshTokenRepository, meterRegistry, true, 100, 10, 1_000_000);
+
+        int purged = job.purge(now);
+
+        assertEquals(242, purged);
+        verify(refreshTokenRepository, times(3)).deleteExpiredBatch(now, 100);
+        assertEquals(242.0, meterRegistry.get("refresh_token.purge.rows").counter().count());
+        assertEquals(1, meterRegistry.get("refresh_token.purge.duration").timer().count());
+    }
+
+    @Test
+    void testPurge_StopsAtMaxBatchesPerRun() {
+        Instant now = Instant.now();
+        when(refreshTokenRepository.deleteExpiredBatch(now, 100)).thenReturn(100);
+        RefreshTokenPurgeJob job = new RefreshTokenPurgeJob(refreshTokenRepository, meterRegistry, true, 100, 5, 1_000_000);
+
+        assertEquals(500, job.purge(now));
+        verify(refreshTokenRepository, times(5)).deleteExpiredBatch(now, 100);
+    }
+
+    @Test
+    void testPurge_ThrottlesToMaxRowsPerSecond() {
+        Instant now = Instant.now();
+        when(refreshTokenRepository.deleteExpiredBatch(now, 100)).thenReturn(100, 100, 0);
+        RefreshTokenPurgeJob job = new RefreshTokenPurgeJob(refreshTokenRepository, meterRegistry, true, 100, 10, 1_000);
+
+        long start = System.nanoTime();
+        job.purge(now);
+
+        assertTrue(System.nanoTime() - start >= 200_000_000L);
+    }
+
+    @Test
+    void testPurgeExpiredTokens_DisabledDoesNothing() {
+        RefreshTokenPurgeJob job = new RefreshTokenPurgeJob(refreshTokenRepository, meterRegistry, false, 100, 10, 1_000);
+
+        job.purgeExpiredTokens();
+
+        verifyNoInteractions(refreshTokenRepository);
+    }
+}
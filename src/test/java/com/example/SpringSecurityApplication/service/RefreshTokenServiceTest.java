@@ -1,8 +1,8 @@
 package com.example.SpringSecurityApplication.service;
 
+import com.example.SpringSecurityApplication.exception.TokenRefreshException;
 import com.example.SpringSecurityApplication.model.RefreshToken;
 import com.example.SpringSecurityApplication.model.UserInfo;
-import com.example.SpringSecurityApplication.repository.RefreshTokenRepository;
 import com.example.SpringSecurityApplication.repository.UserInfoRepository;
 import com.example.SpringSecurityApplication.service.RefreshTokenService;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
 import java.lang.reflect.Field;
 import java.time.Duration;
@@ -24,11 +25,14 @@ import static org.mockito.Mockito.*;
 class RefreshTokenServiceTest {
 
     @Mock
-    private RefreshTokenRepository refreshTokenRepository;
+    private RefreshTokenStore refreshTokenStore;
 
     @Mock
     private UserInfoRepository userRepository;
 
+    @Spy
+    private RotatedRefreshTokens rotatedTokens = new RotatedRefreshTokens(new LocalSharedTokenStore(1000), Duration.ofMinutes(1));
+
     @InjectMocks
     private RefreshTokenService refreshTokenService;
 
@@ -47,33 +51,49 @@ class RefreshTokenServiceTest {
         user.setUsername("testUser");
 
         when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(user));
-        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(refreshTokenStore.save(any(RefreshToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         RefreshToken refreshToken = refreshTokenService.createRefreshToken("testUser");
 
         assertNotNull(refreshToken);
         assertEquals(user, refreshToken.getUserInfo());
         assertNotNull(refreshToken.getToken());
+        assertEquals(TokenDigest.sha256Hex(refreshToken.getToken()), refreshToken.getTokenHash());
+        assertNotNull(refreshToken.getFamilyId());
         assertTrue(refreshToken.getExpiryDate().isAfter(Instant.now()));
 
         verify(userRepository, times(1)).findByUsername("testUser");
-        verify(refreshTokenRepository, times(1)).save(any(RefreshToken.class));
+        verify(refreshTokenStore, times(1)).save(any(RefreshToken.class));
+    }
+
+    @Test
+    void testCreateRefreshToken_ForAuthenticatedUserDoesNotLoadTheUser() {
+        UserInfoDetails principal = new UserInfoDetails(UserInfo.builder().id(7L).username("testUser").password("encoded").roles("USER").build());
+
+        when(refreshTokenStore.userReference(principal)).thenReturn(UserInfo.builder().id(7L).username("testUser").build());
+        when(refreshTokenStore.save(any(RefreshToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        RefreshToken refreshToken = refreshTokenService.createRefreshToken(principal);
+
+        assertEquals(7L, refreshToken.getUserInfo().getId());
+        assertEquals("testUser", refreshToken.getUserInfo().getUsername());
+        verifyNoInteractions(userRepository);
     }
 
     @Test
     void testFindByToken_Success() {
         String token = UUID.randomUUID().toString();
         RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setToken(token);
+        refreshToken.setTokenHash(TokenDigest.sha256Hex(token));
 
-        when(refreshTokenRepository.findByToken(token)).thenReturn(Optional.of(refreshToken));
+        when(refreshTokenStore.findByTokenHash(TokenDigest.sha256Hex(token))).thenReturn(Optional.of(refreshToken));
 
         Optional<RefreshToken> foundToken = refreshTokenService.findByToken(token);
 
         assertTrue(foundToken.isPresent());
         assertEquals(token, foundToken.get().getToken());
 
-        verify(refreshTokenRepository, times(1)).findByToken(token);
+        verify(refreshTokenStore, times(1)).findByTokenHash(TokenDigest.sha256Hex(token));
     }
 
     @Test
@@ -92,8 +112,76 @@ class RefreshTokenServiceTest {
         refreshToken.setExpiryDate(Instant.now().minus(Duration.ofMinutes(1)));
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> refreshTokenService.verifyExpiration(refreshToken));
-        assertEquals(refreshToken.getToken() + " Refresh token is expired. Please make a new login..!", exception.getMessage());
+        assertEquals("Refresh token is expired. Please make a new login..!", exception.getMessage());
+
+        verify(refreshTokenStore, times(1)).delete(refreshToken);
+    }
+
+    @Test
+    void testRotate_IssuesNewTokenInSameFamily() {
+        String token = UUID.randomUUID().toString();
+        UserInfo user = new UserInfo();
+        RefreshToken current = storedToken(token, user, Instant.now().plus(Duration.ofMinutes(1)));
+
+        when(refreshTokenStore.findByTokenHash(current.getTokenHash())).thenReturn(Optional.of(current));
+        when(refreshTokenStore.consume(current)).thenReturn(true);
+        when(refreshTokenStore.save(any(RefreshToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        RefreshToken rotated = refreshTokenService.rotate(token);
+
+        assertNotEquals(token, rotated.getToken());
+        assertEquals(current.getFamilyId(), rotated.getFamilyId());
+        assertEquals(user, rotated.getUserInfo());
+        assertEquals(current.getFamilyId(), rotatedTokens.familyOf(current.getTokenHash()));
+    }
+
+    @Test
+    void testRotate_ReuseOfRotatedTokenRevokesFamily() {
+        String token = UUID.randomUUID().toString();
+        RefreshToken current = storedToken(token, new UserInfo(), Instant.now().plus(Duration.ofMinutes(1)));
+
+        when(refreshTokenStore.findByTokenHash(current.getTokenHash()))
+                .thenReturn(Optional.of(current))
+                .thenReturn(Optional.empty());
+        when(refreshTokenStore.consume(current)).thenReturn(true);
+        when(refreshTokenStore.save(any(RefreshToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        refreshTokenService.rotate(token);
+
+        assertThrows(TokenRefreshException.class, () -> refreshTokenService.rotate(token));
+        verify(refreshTokenStore, times(1)).deleteFamily(current.getFamilyId());
+    }
+
+    @Test
+    void testRotate_ConcurrentRotationRevokesFamily() {
+        String token = UUID.randomUUID().toString();
+        RefreshToken current = storedToken(token, new UserInfo(), Instant.now().plus(Duration.ofMinutes(1)));
+
+        when(refreshTokenStore.findByTokenHash(current.getTokenHash())).thenReturn(Optional.of(current));
+        when(refreshTokenStore.consume(current)).thenReturn(false);
+
+        assertThrows(TokenRefreshException.class, () -> refreshTokenService.rotate(token));
+        verify(refreshTokenStore, times(1)).deleteFamily(current.getFamilyId());
+        verify(refreshTokenStore, never()).save(any(RefreshToken.class));
+    }
+
+    @Test
+    void testRotate_UnknownTokenDoesNotRevokeAnything() {
+        when(refreshTokenStore.findByTokenHash(any())).thenReturn(Optional.empty());
+
+        TokenRefreshException exception = assertThrows(TokenRefreshException.class, () -> refreshTokenService.rotate("unknown"));
+        assertEquals("Refresh Token is not in DB..!!", exception.getMessage());
+
+        verify(refreshTokenStore, never()).deleteFamily(any());
+    }
 
-        verify(refreshTokenRepository, times(1)).delete(refreshToken);
+    private static RefreshToken storedToken(String token, UserInfo user, Instant expiryDate) {
+        return RefreshToken.builder()
+                .id(1L)
+                .tokenHash(TokenDigest.sha256Hex(token))
+                .familyId(UUID.randomUUID())
+                .userInfo(user)
+                .expiryDate(expiryDate)
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.example.SpringSecurityApplication.exception.LoginRateLimitedException;
+import com.example.SpringSecurityApplication.model.UserInfo;
+import com.example.SpringSecurityApplication.service.LoginRateLimiter.Rule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RehashingAuthenticationProviderTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+    private RehashingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        LoginRateLimiter loginRateLimiter = new LoginRateLimiter(true, new Rule(10, 20), new Rule(1, 3), 2,
+                Duration.ofMinutes(1), Duration.ofMinutes(10), 1000, Duration.ofMinutes(15), clock);
+        UserDetailsService userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(new UserInfoDetails(
+                UserInfo.builder().username("alice").password("hash").roles("USER").build()));
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.matches("right", "hash")).thenReturn(true);
+        provider = new RehashingAuthenticationProvider(mock(PasswordUpgradeService.class), loginRateLimiter,
+                new SimpleMeterRegistry());
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testUsernameBucket_IsSharedByEveryClient() {
+        for (String ip : new String[]{"203.0.113.1", "203.0.113.2", "203.0.113.3"}) {
+            assertThrows(BadCredentialsException.class, () -> login(ip, "wrong"));
+        }
+
+        assertThrows(LoginRateLimitedException.class, () -> login("203.0.113.4", "right"));
+    }
+
+    @Test
+    void testLockout_OnlyAppliesToTheFailingClient() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(BadCredentialsException.class, () -> login("203.0.113.7", "wrong"));
+        }
+        clock.advance(Duration.ofSeconds(3));
+
+        assertThrows(LoginRateLimitedException.class, () -> login("203.0.113.7", "right"));
+        assertEquals("alice", login("198.51.100.2", "right").getName());
+    }
+
+    private Authentication login(String ip, String password) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/login");
+        request.setRemoteAddr(ip);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        return provider.authenticate(new UsernamePasswordAuthenticationToken("alice", password));
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.example.SpringSecurityApplication.config.SharedTokenStoreConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two instances, each with its own connection pool, local caches and {@link JwtService}, sharing one
+ * Redis-protocol server: a revocation or refresh-token rotation on one must be honoured by the other
+ * within {@code revocation.maxStaleness}.
+ */
+class SharedRevocationIntegrationTest {
+
+    private static final String SECRET = "AAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8gISIjJCUmJygpKissLS4vMDEyMzQ1Njc4OTo7PD0+Pw==";
+    private static final Duration MAX_STALENESS = Duration.ofMillis(300);
+
+    private EmbeddedRespServer server;
+    private Instance first;
+    private Instance second;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = EmbeddedRespServer.start();
+        first = new Instance(server.getPort());
+        second = new Instance(server.getPort());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        first.close();
+        second.close();
+        server.close();
+    }
+
+    @Test
+    void testRevocationOnOneInstanceIsSeenByTheOtherWithinMaxStaleness() throws Exception {
+        String token = first.jwtService.generateToken("testUser");
+        VerifiedClaims claims = second.jwtService.parseAndValidate(token);
+        assertFalse(second.revocationService.isRevoked(claims));
+
+        Thread.sleep(1000);
+        long revokedAt = System.nanoTime();
+        first.revocationService.revokeUser("testUser");
+
+        assertTrue(first.revocationService.isRevoked(claims));
+        while (!second.revocationService.isRevoked(claims)) {
+            assertTrue(System.nanoTime() - revokedAt < MAX_STALENESS.toNanos() * 2,
+                    "second instance still accepts a revoked token");
+            Thread.sleep(10);
+        }
+        assertTrue(System.nanoTime() - revokedAt <= MAX_STALENESS.toNanos() + Duration.ofMillis(100).toNanos());
+    }
+
+    @Test
+    void testTokenIssuedAfterRevocationIsAccepted() throws Exception {
+        first.revocationService.revokeUser("testUser");
+        Thread.sleep(1100);
+
+        String token = first.jwtService.generateToken("testUser");
+
+        assertFalse(second.revocationService.isRevoked(second.jwtService.parseAndValidate(token)));
+    }
+
+    @Test
+    void testVersionRevocationOnOneInstanceIsSeenByTheOther() {
+        String token = first.jwtService.generateToken("testUser");
+
+        first.revocationService.revokeVersionsBelow("testUser", 1);
+
+        assertTrue(second.revocationService.isRevoked(second.jwtService.parseAndValidate(token)));
+    }
+
+    @Test
+    void testRotatedRefreshTokenIsKnownToTheOtherInstance() {
+        String tokenHash = TokenDigest.sha256Hex(UUID.randomUUID().toString());
+        UUID familyId = UUID.randomUUID();
+
+        first.rotatedTokens.markRotated(tokenHash, familyId);
+
+        assertEquals(familyId, second.rotatedTokens.familyOf(tokenHash));
+    }
+
+    private static final class Instance implements AutoCloseable {
+        final LettuceConnectionFactory connectionFactory;
+        final JwtService jwtService = new JwtService();
+        final RevocationService revocationService;
+        final RotatedRefreshTokens rotatedTokens;
+
+        Instance(int port) {
+            connectionFactory = SharedTokenStoreConfig.redisConnectionFactory("localhost", port, Duration.ofSeconds(2), 4);
+            connectionFactory.afterPropertiesSet();
+            SharedTokenStore store = new RedisSharedTokenStore(new StringRedisTemplate(connectionFactory));
+            revocationService = new RevocationService(store, Duration.ofMinutes(1), MAX_STALENESS, 1000);
+            rotatedTokens = new RotatedRefreshTokens(store, Duration.ofMinutes(10));
+            ReflectionTestUtils.setField(jwtService, "jwtSecret", SECRET);
+            ReflectionTestUtils.setField(jwtService, "tokenExpiration", Duration.ofMinutes(1));
+            jwtService.init();
+        }
+
+        @Override
+        public void close() {
+            connectionFactory.destroy();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.SpringSecurityApplication.service;
+
+import com.example.SpringSecurityApplication.exception.UserImportException;
+import com.example.SpringSecurityApplication.model.dto.UserImportErrorDTO;
+import com.example.SpringSecurityApplication.model.dto.UserImportReportDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against an in-memory H2 database in PostgreSQL mode with the same constraints Hibernate creates for
+ * {@code users}.
+ */
+class UserImportServiceTest {
+
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JdbcTemplate jdbcTemplate;
+    private KnownUsernames knownUsernames;
+    private UserImportService userImportService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE SEQUENCE user_id_seq START WITH 1 INCREMENT BY 50");
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL UNIQUE, " +
+                "password VARCHAR(255) NOT NULL, email VARCHAR(255) NOT NULL UNIQUE, roles VARCHAR(255) NOT NULL, " +
+                "token_version BIGINT NOT NULL)");
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        knownUsernames = new KnownUsernames(jdbcTemplate, transactionManager, new LocalSharedTokenStore(1000), true,
+                1000, 0.01, Duration.ofMinutes(1));
+        knownUsernames.load();
+        userImportService = new UserImportService(jdbcTemplate, transactionManager, encoder,
+                new ObjectMapper(), knownUsernames, meterRegistry, 2, 2, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userImportService.destroy();
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void testImportNdjson_HashesPasswordsAndInsertsAllBatches() throws Exception {
+        String input = IntStream.range(0, 5)
+                .mapToObj(i -> "{\"username\":\"user" + i + "\",\"password\":\"secret" + i + "\",\"email\":\"user" + i
+                        + "@example.com\",\"roles\":\"USER\"}")
+                .collect(Collectors.joining("\n"));
+
+        UserImportReportDTO report = importUsers(input, UserImportService.Format.NDJSON);
+
+        assertEquals(5, report.getImported());
+        assertEquals(0, report.getFailed());
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT count(DISTINCT id) FROM users", Integer.class));
+        String stored = jdbcTemplate.queryForObject("SELECT password FROM users WHERE name = 'user3'", String.class);
+        assertTrue(encoder.matches("secret3", stored));
+        assertEquals(5, meterRegistry.get("user.import.rows").tag("outcome", "imported").counter().count());
+    }
+
+    @Test
+    void testImportCsv_ReportsBadRowsAndImportsTheRest() throws Exception {
+        jdbcTemplate.update("INSERT INTO users VALUES (1000, 'existing', 'x', 'existing@example.com', 'USER', 0)");
+        String input = """
+                username,email,password,roles
+                alice,alice@example.com,secret,"USER,ADMIN"
+                bob,,secret,USER
+                alice,other@example.com,secret,USER
+                existing,new@example.com,secret,USER
+                carol,existing@example.com,secret,USER
+                "dave,dave@example.com,secret,USER
+                erin,erin@example.com,secret,USER
+                """;
+
+        UserImportReportDTO report = importUsers(input, UserImportService.Format.CSV);
+
+        assertEquals(2, report.getImported());
+        assertEquals(5, report.getFailed());
+        assertEquals(List.of(
+                new UserImportErrorDTO(3, "bob", "missing email"),
+                new UserImportErrorDTO(4, "alice", "duplicate name in import"),
+                new UserImportErrorDTO(5, "existing", "duplicate name"),
+                new UserImportErrorDTO(6, "carol", "duplicate email"),
+                new UserImportErrorDTO(7, null, "unterminated quoted field")), report.getErrors());
+        assertEquals("USER,ADMIN", jdbcTemplate.queryForObject("SELECT roles FROM users WHERE name = 'alice'", String.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM users WHERE name = 'erin'", Integer.class));
+        assertTrue(knownUsernames.mightExist("erin"));
+        assertFalse(knownUsernames.mightExist("bob"));
+    }
+
+    @Test
+    void testImport_KeepsAlreadyEncodedPasswords() throws Exception {
+        String bcrypt = encoder.encode("secret");
+
+        importUsers("{\"username\":\"migrated\",\"password\":\"{bcrypt}" + bcrypt + "\",\"email\":\"m@example.com\",\"roles\":\"USER\"}",
+                UserImportService.Format.NDJSON);
+
+        assertEquals("{bcrypt}" + bcrypt,
+                jdbcTemplate.queryForObject("SELECT password FROM users WHERE name = 'migrated'", String.class));
+    }
+
+    @Test
+    void testImportNdjson_InvalidLineIsReported() throws Exception {
+        UserImportReportDTO report = importUsers("{\"username\":", UserImportService.Format.NDJSON);
+
+        assertEquals(0, report.getImported());
+        assertEquals(1, report.getErrors().get(0).getLine());
+        assertTrue(report.getErrors().get(0).getReason().startsWith("invalid JSON"));
+    }
+
+    @Test
+    void testImportCsv_MissingColumnRejectsTheInput() {
+        assertThrows(UserImportException.class, () -> importUsers("username,password,email\n", UserImportService.Format.CSV));
+    }
+
+    @Test
+    void testAllocateIds_OneSequenceCallPerFiftyIds() {
+        long[] ids = userImportService.allocateIds(120);
+
+        assertEquals(120, Arrays.stream(ids).distinct().count());
+        assertTrue(Arrays.stream(ids).allMatch(id -> id > 0));
+        // The first nextval returns 1 and reserves only that id, then 51, 101 and 151 reserve 50 each.
+        assertEquals(201, jdbcTemplate.queryForObject(UserImportService.NEXT_ID_SQL, Long.class));
+    }
+
+    @Test
+    void testParseCsvLine_QuotedFields() {
+        assertEquals(List.of("a", "b,c", "say \"hi\"", ""), UserImportService.parseCsvLine("a,\"b,c\",\"say \"\"hi\"\"\","));
+    }
+
+    private UserImportReportDTO importUsers(String input, UserImportService.Format format) throws Exception {
+        return userImportService.importUsers(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), format);
+    }
+}
@@ -2,15 +2,18 @@ package com.example.SpringSecurityApplication.service;
 
 import com.example.SpringSecurityApplication.model.UserInfo;
 import com.example.SpringSecurityApplication.repository.UserInfoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,12 +27,19 @@ class UserInfoServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
-    @InjectMocks
+    @Mock
+    private KnownUsernames knownUsernames;
+
+    private UserDetailsCache userDetailsCache;
+
     private UserInfoService userInfoService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        userDetailsCache = new UserDetailsCache(true, 100, Duration.ofMinutes(1));
+        when(knownUsernames.mightExist(anyString())).thenReturn(true);
+        userInfoService = new UserInfoService(userInfoRepository, passwordEncoder, userDetailsCache, knownUsernames);
     }
 
     @Test
@@ -75,5 +85,79 @@ class UserInfoServiceTest {
         assertEquals("encodedPassword", userInfo.getPassword());
         verify(passwordEncoder, times(1)).encode("plainPassword");
         verify(userInfoRepository, times(1)).save(userInfo);
+        verify(knownUsernames).add("newUser");
+    }
+
+    @Test
+    void testLoadUserByUsername_UnknownNameSkipsTheLookup() {
+        when(knownUsernames.mightExist("ghost")).thenReturn(false);
+
+        UsernameNotFoundException exception = assertThrows(UsernameNotFoundException.class,
+                () -> userInfoService.loadUserByUsername("ghost"));
+
+        assertEquals("User not found ghost", exception.getMessage());
+        verifyNoInteractions(userInfoRepository);
+        assertEquals(0, userDetailsCache.stats().requestCount());
+    }
+
+    @Test
+    void testLogin_UnknownNameStillHashesThePassword() {
+        when(knownUsernames.mightExist("ghost")).thenReturn(false);
+        when(passwordEncoder.encode("userNotFoundPassword")).thenReturn("dummyHash");
+        LoginRateLimiter loginRateLimiter = mock(LoginRateLimiter.class);
+        RehashingAuthenticationProvider provider = new RehashingAuthenticationProvider(
+                mock(PasswordUpgradeService.class), loginRateLimiter, new SimpleMeterRegistry());
+        provider.setUserDetailsService(userInfoService);
+        provider.setPasswordEncoder(passwordEncoder);
+
+        assertThrows(BadCredentialsException.class,
+                () -> provider.authenticate(new UsernamePasswordAuthenticationToken("ghost", "secret")));
+
+        verifyNoInteractions(userInfoRepository);
+        verify(passwordEncoder).matches("secret", "dummyHash");
+        verify(loginRateLimiter).loginFailed(LoginRateLimiter.Scope.IP_USERNAME, "ghost");
+    }
+
+    @Test
+    void testLoadUserByUsername_ServedFromCache() {
+        String username = "cachedUser";
+        UserInfo userInfo = UserInfo.builder().username(username).password("password").roles("USER").build();
+        when(userInfoRepository.findByUsername(username)).thenReturn(Optional.of(userInfo));
+
+        UserDetails first = userInfoService.loadUserByUsername(username);
+        UserDetails second = userInfoService.loadUserByUsername(username);
+
+        assertSame(first, second);
+        assertEquals(1, userDetailsCache.stats().hitCount());
+        verify(userInfoRepository, times(1)).findByUsername(username);
+    }
+
+    @Test
+    void testLoadUserByUsername_NotFoundIsNotCached() {
+        String username = "nonExistentUser";
+        when(userInfoRepository.findByUsername(username)).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userInfoService.loadUserByUsername(username));
+        assertThrows(UsernameNotFoundException.class, () -> userInfoService.loadUserByUsername(username));
+
+        verify(userInfoRepository, times(2)).findByUsername(username);
+    }
+
+    @Test
+    void testAddUser_InvalidatesCachedUser() {
+        String username = "newUser";
+        UserInfo stale = UserInfo.builder().username(username).password("old").roles("USER").build();
+        when(userInfoRepository.findByUsername(username)).thenReturn(Optional.of(stale));
+        userInfoService.loadUserByUsername(username);
+
+        UserInfo userInfo = UserInfo.builder().username(username).password("plainPassword").roles("USER,ADMIN").build();
+        when(passwordEncoder.encode("plainPassword")).thenReturn("encodedPassword");
+        userInfoService.addUser(userInfo);
+        when(userInfoRepository.findByUsername(username)).thenReturn(Optional.of(userInfo));
+
+        UserDetails reloaded = userInfoService.loadUserByUsername(username);
+
+        assertEquals("encodedPassword", reloaded.getPassword());
+        verify(userInfoRepository, times(2)).findByUsername(username);
     }
-}
\ No newline at end of file
+}
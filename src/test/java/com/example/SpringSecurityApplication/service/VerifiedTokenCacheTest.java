@@ -0,0 +1,137 @@
+package com.example.SpringSecurityApplication.service;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private static final String SECRET = "AAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8gISIjJCUmJygpKissLS4vMDEyMzQ1Njc4OTo7PD0+Pw==";
+    private static final String OTHER_SECRET = "Pz49PDs6OTg3NjU0MzIxMC8uLSwrKikoJyYlJCMiISAfHh0cGxoZGBcWFRQTEhEQDw4NDAsKCQgHBgUEAwIBAA==";
+
+    private MutableClock clock;
+    private AtomicInteger verifications;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-09-01T10:00:00Z"));
+        verifications = new AtomicInteger();
+    }
+
+    @Test
+    void testRepeatedToken_IsVerifiedOnce() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, true, clock);
+        Function<String, VerifiedClaims> verifier = counting(claims("USER,ADMIN", Duration.ofMinutes(1)));
+
+        VerifiedTokenCache.VerifiedToken first = cache.get("token", verifier);
+        VerifiedTokenCache.VerifiedToken second = cache.get("token", verifier);
+
+        assertEquals(1, verifications.get());
+        assertSame(first, second);
+        assertEquals("testUser", second.principal().getUsername());
+        assertEquals(2, second.principal().getAuthorities().size());
+    }
+
+    @Test
+    void testTokenWithoutRoles_HasNoPrincipal() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, true, clock);
+
+        assertNull(cache.get("token", counting(claims(null, Duration.ofMinutes(1)))).principal());
+    }
+
+    @Test
+    void testEntry_ExpiresWithTheToken() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, true, clock);
+        Function<String, VerifiedClaims> verifier = counting(claims(null, Duration.ofMinutes(1)));
+        cache.get("token", verifier);
+
+        clock.advance(Duration.ofSeconds(59));
+        cache.get("token", verifier);
+        assertEquals(1, verifications.get());
+
+        clock.advance(Duration.ofSeconds(1));
+        cache.get("token", verifier);
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void testInvalidToken_IsNotCached() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, true, clock);
+        Function<String, VerifiedClaims> verifier = token -> {
+            verifications.incrementAndGet();
+            throw new JwtException("bad signature");
+        };
+
+        assertThrows(JwtException.class, () -> cache.get("forged", verifier));
+        assertThrows(JwtException.class, () -> cache.get("forged", verifier));
+        assertEquals(2, verifications.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testDisabled_AlwaysVerifies() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(false, 100, true, clock);
+        Function<String, VerifiedClaims> verifier = counting(claims(null, Duration.ofMinutes(1)));
+
+        cache.get("token", verifier);
+        cache.get("token", verifier);
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void testInvalidate_ForcesVerification() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, true, clock);
+        Function<String, VerifiedClaims> verifier = counting(claims(null, Duration.ofMinutes(1)));
+        cache.get("token", verifier);
+
+        cache.invalidate("token");
+        cache.get("token", verifier);
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void testKeyChange_DropsVerifiedTokens() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, true);
+        JwtService jwtService = new JwtService();
+        setField(jwtService, "jwtSecret", SECRET);
+        setField(jwtService, "tokenExpiration", Duration.ofMinutes(1));
+        setField(jwtService, "verifiedTokenCache", cache);
+        jwtService.init();
+        String token = jwtService.generateToken("testUser");
+        assertEquals("testUser", cache.get(token, jwtService::parseAndValidate).claims().username());
+
+        jwtService.reloadSecret(OTHER_SECRET);
+
+        assertEquals(0, cache.size());
+        assertThrows(JwtException.class, () -> cache.get(token, jwtService::parseAndValidate));
+    }
+
+    private Function<String, VerifiedClaims> counting(VerifiedClaims claims) {
+        return token -> {
+            verifications.incrementAndGet();
+            return claims;
+        };
+    }
+
+    private VerifiedClaims claims(String roles, Duration lifetime) {
+        return new VerifiedClaims("jti", "testUser", new Date(clock.millis()),
+                new Date(clock.millis() + lifetime.toMillis()), roles, 1L);
+    }
+
+    private static void setField(JwtService jwtService, String name, Object value) throws Exception {
+        Field field = JwtService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(jwtService, value);
+    }
+}